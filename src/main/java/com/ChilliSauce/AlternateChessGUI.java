@@ -1,10 +1,19 @@
 package com.ChilliSauce;
 
+import com.ChilliSauce.engine.Engine;
+import com.ChilliSauce.engine.Nnue;
+import com.ChilliSauce.engine.OpeningBook;
+import com.ChilliSauce.engine.SearchLimits;
+import com.ChilliSauce.engine.SearchListener;
+import com.ChilliSauce.engine.SearchResult;
+import com.ChilliSauce.engine.ThrottledSearchListener;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class AlternateChessGUI extends JFrame {
@@ -26,6 +35,15 @@ public class AlternateChessGUI extends JFrame {
     private int toIndex = -1;
 
 
+    // Engine (searches on its own thread, never on the EDT)
+    private static final long ANALYSIS_UPDATE_MILLIS = 250; // at most 4 analysis repaints per second
+    private static final int ANALYSIS_LINES = 3; // MultiPV lines shown while analysing
+    private final Engine engine = new Engine();
+    private boolean engineThinking = false;   // engine is choosing a move: the user must wait
+    private boolean analysisRunning = false;  // background analysis of the current position
+    private final JLabel analysisLabel;
+    private final SearchResult[] analysisLines = new SearchResult[ANALYSIS_LINES];
+
     // Game Termination
     private final GameTermination termination = new GameTermination();
 
@@ -33,6 +51,7 @@ public class AlternateChessGUI extends JFrame {
     private final Timer whiteTimer, blackTimer, idleTimer;
     private int whiteTime = 600; // 10 min in seconds
     private int blackTime = 600; // 10 min in seconds
+    private static final int INCREMENT_SECONDS = 5;
     private boolean isWhiteTurn = true;
     private boolean firstMoveDone = false;
     private final JLabel whiteTimeLabel, blackTimeLabel;
@@ -56,6 +75,12 @@ public class AlternateChessGUI extends JFrame {
                              String playerOneName,
                              String playerTwoName) {
         this.board = board;
+        // The board only reports moves; sound and repainting are this window's concern.
+        board.addListener(SoundManager.boardListener());
+        board.addListener((_, _, _) -> repaintBoard());
+        engine.setThreads(Runtime.getRuntime().availableProcessors());
+        engine.setOpeningBook(OpeningBook.openDefault(), false);
+        engine.setNetwork(Nnue.openDefault());
 
         // Store player names for use in the labels
         this.whitePlayerName = playerOneName;
@@ -150,6 +175,14 @@ public class AlternateChessGUI extends JFrame {
         whitePlayerLabel.setBounds(CLOCK_X, CLOCK_Y + CLOCK_H + 5, CLOCK_W, 30);
         getContentPane().add(whitePlayerLabel);
 
+        // Engine analysis output (depth, score and best line), updated while the engine thinks
+        analysisLabel = new JLabel("", SwingConstants.LEFT);
+        analysisLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        analysisLabel.setForeground(Color.WHITE);
+        analysisLabel.setVerticalAlignment(SwingConstants.TOP);
+        analysisLabel.setBounds(100, 510, 420, 120);
+        getContentPane().add(analysisLabel);
+
         // 5) Mouse Listeners for Piece Dragging
         chessBoardPanel.addMouseListener(new MouseAdapter() {
             @Override
@@ -182,41 +215,22 @@ public class AlternateChessGUI extends JFrame {
                 if (piece == PieceConstants.NONE)
                     return;
 
-                boolean moveSuccessful = board.makeMove(selectedPieceIndex, targetIndex, AlternateChessGUI.this);
-                if (moveSuccessful) {
-                    fromIndex = selectedPieceIndex;
-                    toIndex = targetIndex;
-
-                    // Pawn promotion check
-                    if ((piece & PieceConstants.PAWN) == PieceConstants.PAWN) {
-                        boolean isWhite = ((piece & PieceConstants.WHITE) != 0);
-                        int lastRank = isWhite ? 7 : 0;
-                        if (targetIndex / 8 == lastRank) {
-                            showPromotionPopup(targetIndex, isWhite);
-                        }
+                // Pawn promotion: ask for the piece before the move is played (not while the engine
+                // thinks, when the move would be refused anyway)
+                int promotionType = PieceConstants.NONE;
+                if (!engineThinking && (piece & 7) == PieceConstants.PAWN && validMoves.contains(targetIndex)) {
+                    boolean isWhite = ((piece & PieceConstants.WHITE) != 0);
+                    int lastRank = isWhite ? 7 : 0;
+                    if (targetIndex / 8 == lastRank) {
+                        promotionType = showPromotionPopup(isWhite);
                     }
+                }
 
-                    // Clock logic
-                    if (!firstMoveDone) {
-                        firstMoveDone = true;
-                        idleTimer.stop();
-                        whiteTimer.start();
-                    }
-                    if (isWhiteTurn) {
-                        whiteTimer.stop();
-                        whiteTime += 5;  // increment
-                        blackTimer.start();
-                    } else {
-                        blackTimer.stop();
-                        blackTime += 5;
-                        whiteTimer.start();
-                    }
-                    isWhiteTurn = !isWhiteTurn;
-
-                    repaintBoard();
-                    // Check for checkmate and stalemate after a successful move.
-                    checkForCheckmate();
-                    checkForStalemate();
+                boolean moveSuccessful = !engineThinking
+                        && board.playMove(selectedPieceIndex, targetIndex, promotionType);
+                if (moveSuccessful) {
+                    onMovePlayed(selectedPieceIndex, targetIndex);
+                    replyFromPonder();
                 }
 
                 validMoves.clear();
@@ -280,6 +294,41 @@ public class AlternateChessGUI extends JFrame {
         repaintBoard();
     }
 
+    /**
+     * Move highlights, clocks and game-end checks after a move was played on the board
+     * (by the user or by the engine).
+     */
+    private void onMovePlayed(int from, int to) {
+        fromIndex = from;
+        toIndex = to;
+
+        // Clock logic
+        if (!firstMoveDone) {
+            firstMoveDone = true;
+            idleTimer.stop();
+            whiteTimer.start();
+        }
+        if (isWhiteTurn) {
+            whiteTimer.stop();
+            whiteTime += INCREMENT_SECONDS;
+            blackTimer.start();
+        } else {
+            blackTimer.stop();
+            blackTime += INCREMENT_SECONDS;
+            whiteTimer.start();
+        }
+        isWhiteTurn = !isWhiteTurn;
+
+        repaintBoard();
+        // Check for checkmate and stalemate after a successful move.
+        checkForCheckmate();
+        checkForStalemate();
+
+        if (analysisRunning) {
+            restartAnalysis();
+        }
+    }
+
     /**
      * Repaint the chessBoardPanel on the Swing event thread.
      */
@@ -288,9 +337,10 @@ public class AlternateChessGUI extends JFrame {
     }
 
     /**
-     * Show the promotion popup for a pawn that reaches the last rank.
+     * Shows the promotion dialog and returns the chosen bare piece type (queen if none was chosen).
      */
-    private void showPromotionPopup(int index, boolean isWhite) {
+    private int showPromotionPopup(boolean isWhite) {
+        int[] chosenType = {PieceConstants.QUEEN};
         JDialog promotionDialog = new JDialog(this, "Choose Promotion Piece", true);
         promotionDialog.setLayout(new GridLayout(1, 4));
         promotionDialog.setUndecorated(true);
@@ -312,13 +362,11 @@ public class AlternateChessGUI extends JFrame {
 
             JButton button = new JButton(resizedIcon);
             button.setPreferredSize(new Dimension(80, 80));
-            final int selectedPiece = pieceTypes[i] | (isWhite ? PieceConstants.WHITE : PieceConstants.BLACK);
+            final int selectedType = pieceTypes[i];
 
             button.addActionListener(_ -> {
-                board.setPiece(index, selectedPiece);
+                chosenType[0] = selectedType;
                 promotionDialog.dispose();
-                SoundManager.playPromotionSound();
-                repaintBoard();
             });
             promotionDialog.add(button);
         }
@@ -327,6 +375,7 @@ public class AlternateChessGUI extends JFrame {
         promotionDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
         promotionDialog.setModalityType(Dialog.ModalityType.APPLICATION_MODAL);
         promotionDialog.setVisible(true);
+        return chosenType[0];
     }
 
     /**
@@ -390,7 +439,7 @@ public class AlternateChessGUI extends JFrame {
             int x = col * TILE_SIZE;
             int y = (7 - row) * TILE_SIZE;
 
-            Image pieceImage = PieceConstants.getPieceImage(piece);
+            Image pieceImage = getPieceImage(piece);
             if (pieceImage != null) {
                 g2d.drawImage(pieceImage, x, y, TILE_SIZE, TILE_SIZE, this);
             }
@@ -400,7 +449,7 @@ public class AlternateChessGUI extends JFrame {
         if (dragging && selectedPieceIndex != -1) {
             int piece = board.getPiece(selectedPieceIndex);
             if (piece != PieceConstants.NONE) {
-                Image pieceImage = PieceConstants.getPieceImage(piece);
+                Image pieceImage = getPieceImage(piece);
                 if (pieceImage != null) {
                     int offset = TILE_SIZE / 2;
                     g2d.drawImage(pieceImage, draggedX - offset, draggedY - offset,
@@ -507,7 +556,7 @@ public class AlternateChessGUI extends JFrame {
             System.err.println("maximize.png icon not found!");
         }
 
-        // Engine button (placeholder)
+        // Engine button
         if (engine != null) {
             ImageIcon icon = new ImageIcon(engine);
             Image scaled = icon.getImage().getScaledInstance(80, 40, Image.SCALE_AREA_AVERAGING);
@@ -516,18 +565,124 @@ public class AlternateChessGUI extends JFrame {
             engineButton.setToolTipText("Engine");
             styleButton(engineButton);
             engineButton.setBounds(200, 450, 80, 40);
-            engineButton.addActionListener(_ -> JOptionPane.showMessageDialog(
-                    this,
-                    "Engine feature will be available soon",
-                    "Engine Feature",
-                    JOptionPane.INFORMATION_MESSAGE
-            ));
+            engineButton.addActionListener(_ -> askEngine());
             getContentPane().add(engineButton);
         } else {
             System.err.println("engine.png icon not found!");
         }
     }
 
+    /**
+     * Lets the user have the engine play the side to move, or toggle background analysis.
+     * Searches run on the engine's thread; results come back to the EDT via invokeLater.
+     */
+    private void askEngine() {
+        if (engineThinking) return;
+        String[] options = {"Play move", analysisRunning ? "Stop analysis" : "Analyze", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(this, "What should the engine do?", "Engine",
+                JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        if (choice == 0) {
+            playEngineMove();
+        } else if (choice == 1) {
+            if (analysisRunning) {
+                stopAnalysis();
+            } else {
+                analysisRunning = true;
+                restartAnalysis();
+            }
+        }
+    }
+
+    /**
+     * Searches on the side to move's own clock and plays the result.
+     */
+    private void playEngineMove() {
+        engine.stop(); // Ends any pondering or analysis first; its table entries are kept.
+        engine.setMultiPv(1);
+        Arrays.fill(analysisLines, null);
+        engineThinking = true;
+        long positionKey = board.getZobristKey();
+        SearchLimits limits = SearchLimits.clock(whiteTime * 1000L, blackTime * 1000L,
+                INCREMENT_SECONDS * 1000L, INCREMENT_SECONDS * 1000L, 0);
+        engine.searchAsync(board, limits, analysisListener(positionKey))
+                .thenAccept(result -> SwingUtilities.invokeLater(() -> {
+                    engineThinking = false;
+                    if (board.getZobristKey() != positionKey) return; // Position changed meanwhile.
+                    playEngineResult(result);
+                }));
+    }
+
+    /**
+     * Plays the engine's chosen move, then ponders on the expected reply (unless analysing).
+     */
+    private void playEngineResult(SearchResult result) {
+        int move = result.bestMove();
+        if (move == Move.NONE) return;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int promotionType = Move.isPromotion(move) ? Move.promotionType(move) : PieceConstants.NONE;
+        if (!board.playMove(from, to, promotionType)) return;
+        onMovePlayed(from, to);
+        if (!analysisRunning && result.pv().length >= 2) {
+            engine.startPonder(board, result.pv()[1], null);
+        }
+    }
+
+    /**
+     * After the user's move: if the engine was pondering on exactly this move, reply at once
+     * with the ponder result; otherwise the ponder search is dropped.
+     */
+    private void replyFromPonder() {
+        if (!engine.isPondering()) return;
+        engineThinking = true;
+        long positionKey = board.getZobristKey();
+        engine.takePonderResult(board).thenAccept(result -> SwingUtilities.invokeLater(() -> {
+            engineThinking = false;
+            if (result != null && board.getZobristKey() == positionKey) {
+                playEngineResult(result);
+            }
+        }));
+    }
+
+    /**
+     * (Re)starts the infinite background search on the current position.
+     */
+    private void restartAnalysis() {
+        engine.stop();
+        analysisLabel.setText("");
+        Arrays.fill(analysisLines, null);
+        engine.setMultiPv(ANALYSIS_LINES);
+        engine.searchAsync(board, SearchLimits.infinite(), analysisListener(board.getZobristKey()));
+    }
+
+    private void stopAnalysis() {
+        analysisRunning = false;
+        engine.stop();
+        analysisLabel.setText("");
+    }
+
+    // Hands throttled progress to the EDT; updates for a position no longer on the board are dropped.
+    private SearchListener analysisListener(long positionKey) {
+        return new ThrottledSearchListener(ANALYSIS_UPDATE_MILLIS, result -> SwingUtilities.invokeLater(() -> {
+            if (board.getZobristKey() == positionKey) showAnalysis(result);
+        }));
+    }
+
+    // One row per line; a line keeps showing the previous depth until its new result arrives.
+    private void showAnalysis(SearchResult result) {
+        if (result.multiPv() > analysisLines.length) return;
+        analysisLines[result.multiPv() - 1] = result;
+        SearchResult best = analysisLines[0];
+        if (best == null) return;
+        StringBuilder text = new StringBuilder(String.format("<html>Depth %d &nbsp; %,d nps",
+                best.depth(), best.nodesPerSecond()));
+        for (SearchResult line : analysisLines) {
+            if (line == null) continue;
+            text.append(String.format("<br>%s &nbsp; %s", line.scoreString(), line.pvString()));
+        }
+        analysisLabel.setText(text.append("</html>").toString());
+    }
+
     private void styleButton(JButton btn) {
         btn.setBorderPainted(false);
         btn.setOpaque(true);
@@ -670,6 +825,7 @@ public class AlternateChessGUI extends JFrame {
      * Start a new game (rematch) with the same player names and settings.
      */
     private void startNewGame() {
+        engine.shutdown();
         dispose();
         Board newBoard = new Board();
         SwingUtilities.invokeLater(() -> new AlternateChessGUI(
@@ -719,6 +875,39 @@ public class AlternateChessGUI extends JFrame {
         }
     }
 
+    // Piece images live with the GUI so the rules classes never touch AWT or Swing.
+    private static Image getPieceImage(int piece) {
+        if (piece == PieceConstants.NONE) return null; // No piece, return nothing
+
+        String pieceKey = "";
+
+        if ((piece & PieceConstants.WHITE) != 0) pieceKey += "w";
+        else if ((piece & PieceConstants.BLACK) != 0) pieceKey += "b";
+
+        switch (piece & 7) { // Mask the piece type
+            case PieceConstants.KING -> pieceKey += "k";
+            case PieceConstants.QUEEN -> pieceKey += "q";
+            case PieceConstants.ROOK -> pieceKey += "r";
+            case PieceConstants.BISHOP -> pieceKey += "b";
+            case PieceConstants.KNIGHT -> pieceKey += "n";
+            case PieceConstants.PAWN -> pieceKey += "p";
+            default -> { return null; } // Prevents invalid types
+        }
+
+        return loadImage(pieceKey);
+    }
+
+    private static Image loadImage(String pieceKey) {
+        String path = "assets/" + pieceKey + ".png";
+        java.net.URL imgURL = AlternateChessGUI.class.getClassLoader().getResource(path);
+        if (imgURL != null) {
+            return new ImageIcon(imgURL).getImage();
+        } else {
+            System.err.println("Error loading image: " + path);
+            return null;
+        }
+    }
+
     /**
      * Main method for local testing.
      */
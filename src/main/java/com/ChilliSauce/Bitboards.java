@@ -0,0 +1,231 @@
+package com.ChilliSauce;
+
+/**
+ * Bitboard helpers and precomputed attack tables: plain per-square tables for knights,
+ * kings and pawns, magic-bitboard tables for the sliding pieces.
+ * Squares use the same indexing as {@link Board}: a1 = 0, h1 = 7, a8 = 56, h8 = 63.
+ */
+public final class Bitboards {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_JUMPS = {{2, 1}, {2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}, {-2, 1}, {-2, -1}};
+    private static final int[][] KING_STEPS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] WHITE_PAWN_CAPTURES = {{1, -1}, {1, 1}};
+    private static final int[][] BLACK_PAWN_CAPTURES = {{-1, -1}, {-1, 1}};
+
+    // Leaper attack tables, indexed by square (and by color for pawns: 0 = white, 1 = black).
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // BETWEEN[a][b]: squares strictly between two aligned squares; LINE[a][b]: the whole line through both.
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    // Magic multipliers: (occupancy & mask) * magic >>> shift gives a collision-free table index.
+    private static final long[] ROOK_MAGICS = {
+            0x0080008420144000L, 0x0140001000402000L, 0x8100200100081040L, 0x0580100181040800L,
+            0x0480040002480180L, 0x020002001004C108L, 0x06002600180104ACL, 0x0A00010200804024L,
+            0x1102800320814002L, 0xC000808040002000L, 0x0202802000821000L, 0x4210800800801000L,
+            0x8008808044004800L, 0x0006002418100200L, 0x0A00800200010080L, 0x0202000208804114L,
+            0x2010208000400080L, 0x1080484004201000L, 0x1062060020408410L, 0x4810010009001024L,
+            0x4400808008000401L, 0x9421010002080400L, 0x4208840002100801L, 0x8500020000804104L,
+            0x20A0400080208000L, 0x8840008080402008L, 0x0450200080100080L, 0x00100400C02800C0L,
+            0x0A48000880040080L, 0x1100020080800400L, 0x000A921400900148L, 0x0033004600008904L,
+            0x4202804002800020L, 0x3118804202002504L, 0x0004208842001200L, 0x0014C80084801000L,
+            0x0000080080800400L, 0x0922800400800200L, 0x8442000142008418L, 0x0020800040800100L,
+            0x1400400080008020L, 0x0010002008484002L, 0x0400200010008080L, 0x4028001000088080L,
+            0x4408000400808008L, 0x0129000400090052L, 0x8001001200110004L, 0x4000804084020001L,
+            0x1080002080400080L, 0x6A0B950022004200L, 0x8004401200268200L, 0x0002000820411600L,
+            0x0481480080040280L, 0xC001000802040100L, 0x00D1000C06000300L, 0x0026010084004200L,
+            0x2001C81100208001L, 0x0040002080110041L, 0x00410011A000400DL, 0x2081002208041001L,
+            0x0002000804201002L, 0x5101000A28040029L, 0x0100080112489004L, 0x02000E4400288102L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x9120024202040010L, 0x2848084884044042L, 0x211000C20041A022L, 0x4002208A01403034L,
+            0x0004042004112000L, 0x6002021004120500L, 0x0022080202101041L, 0x0102020382849000L,
+            0x0000082089840500L, 0x400204C104010200L, 0x0022460202060900L, 0x0400110502000010L,
+            0x10A9840420020000L, 0x0024120150080184L, 0x0008640288443200L, 0x822000908C901000L,
+            0x0488100408084810L, 0x0010402022008910L, 0x0084000808002208L, 0x0006800802024012L,
+            0x0246008420210880L, 0x0083050200808408L, 0x2004000231040200L, 0x0A04820504088684L,
+            0x0002A80120089050L, 0x1410020008320C20L, 0x8000300008008020L, 0x0344010084200880L,
+            0x6003010001104000L, 0x0008164002004214L, 0x021811000A014100L, 0x0242020020884140L,
+            0x0001104005088800L, 0x0002105069040100L, 0x0200805001010402L, 0x4001020081880080L,
+            0x06402080202A0020L, 0x0201100080010060L, 0x03282A04002080C0L, 0x02040040802206A0L,
+            0x2008822840482090L, 0x40008C0920080805L, 0x1002002024200800L, 0x080D204202200800L,
+            0x0061510212002404L, 0x2448101002108020L, 0x44A1080091100080L, 0x0809014312000900L,
+            0x0200611C10402004L, 0x040E010082104006L, 0x0000209400880002L, 0x1002000442022020L,
+            0x1200000420820040L, 0x1000091021420204L, 0x0021200202004020L, 0x0220028401002200L,
+            0x100603C201904820L, 0x020000420201208BL, 0x0102000422055002L, 0x60C6A04202104400L,
+            0x0224000010020880L, 0x0001122044410204L, 0x408C902002042848L, 0x2404010448020040L
+    };
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = stepAttacks(square, KNIGHT_JUMPS);
+            KING_ATTACKS[square] = stepAttacks(square, KING_STEPS);
+            PAWN_ATTACKS[0][square] = stepAttacks(square, WHITE_PAWN_CAPTURES);
+            PAWN_ATTACKS[1][square] = stepAttacks(square, BLACK_PAWN_CAPTURES);
+
+            ROOK_MASKS[square] = relevantMask(square, ROOK_DIRECTIONS);
+            BISHOP_MASKS[square] = relevantMask(square, BISHOP_DIRECTIONS);
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+            ROOK_ATTACKS[square] = buildTable(square, ROOK_MASKS[square], ROOK_MAGICS[square],
+                    ROOK_SHIFTS[square], ROOK_DIRECTIONS);
+            BISHOP_ATTACKS[square] = buildTable(square, BISHOP_MASKS[square], BISHOP_MAGICS[square],
+                    BISHOP_SHIFTS[square], BISHOP_DIRECTIONS);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) continue;
+                long bBit = 1L << b;
+                if ((rookAttacks(a, 0L) & bBit) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, bBit) & rookAttacks(b, 1L << a);
+                    LINE[a][b] = (rookAttacks(a, 0L) & rookAttacks(b, 0L)) | (1L << a) | bBit;
+                } else if ((bishopAttacks(a, 0L) & bBit) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, bBit) & bishopAttacks(b, 1L << a);
+                    LINE[a][b] = (bishopAttacks(a, 0L) & bishopAttacks(b, 0L)) | (1L << a) | bBit;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    // ---------------------------------------------------------
+    // Slider attack lookups
+    // ---------------------------------------------------------
+    public static long rookAttacks(int square, long occupancy) {
+        return ROOK_ATTACKS[square][(int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    public static long bishopAttacks(int square, long occupancy) {
+        return BISHOP_ATTACKS[square][(int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    public static long queenAttacks(int square, long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    // ---------------------------------------------------------
+    // Leaper attack lookups
+    // ---------------------------------------------------------
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * Squares a pawn of the given color on {@code square} attacks (diagonally forward).
+     */
+    public static long pawnAttacks(int square, boolean isWhite) {
+        return PAWN_ATTACKS[isWhite ? 0 : 1][square];
+    }
+
+    /**
+     * Squares attacked by every pawn in {@code pawns} at once (set-wise shifts with file masks).
+     */
+    public static long pawnAttacks(long pawns, boolean isWhite) {
+        if (isWhite) {
+            return ((pawns & ~FILE_A) << 7) | ((pawns & ~FILE_H) << 9);
+        }
+        return ((pawns & ~FILE_A) >>> 9) | ((pawns & ~FILE_H) >>> 7);
+    }
+
+    // ---------------------------------------------------------
+    // Line geometry (pins, check blocking)
+    // ---------------------------------------------------------
+    /**
+     * Squares strictly between {@code a} and {@code b}, or 0 if they do not share a rank, file or diagonal.
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * The full rank, file or diagonal through {@code a} and {@code b} (edge to edge), or 0 if not aligned.
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    // ---------------------------------------------------------
+    // Table construction (runs once at class-init time)
+    // ---------------------------------------------------------
+    private static long[] buildTable(int square, long mask, long magic, int shift, int[][] directions) {
+        long[] table = new long[1 << (64 - shift)];
+        // Carry-Rippler walk over every subset of the relevant mask.
+        long subset = 0;
+        do {
+            int index = (int) ((subset * magic) >>> shift);
+            table[index] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+        return table;
+    }
+
+    // Squares whose occupancy can block a ray; the last square of each ray never matters.
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int rank = square / 8 + direction[0];
+            int file = square % 8 + direction[1];
+            while (onBoard(rank + direction[0], file + direction[1])) {
+                mask |= 1L << (rank * 8 + file);
+                rank += direction[0];
+                file += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slidingAttacks(int square, long occupancy, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int rank = square / 8 + direction[0];
+            int file = square % 8 + direction[1];
+            while (onBoard(rank, file)) {
+                long bit = 1L << (rank * 8 + file);
+                attacks |= bit;
+                if ((occupancy & bit) != 0) break;
+                rank += direction[0];
+                file += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int rank = square / 8 + step[0];
+            int file = square % 8 + step[1];
+            if (onBoard(rank, file)) {
+                attacks |= 1L << (rank * 8 + file);
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean onBoard(int rank, int file) {
+        return rank >= 0 && rank < 8 && file >= 0 && file < 8;
+    }
+}
@@ -1,19 +1,41 @@
 package com.ChilliSauce;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Board {
     private final int[] board;
     private boolean isWhiteTurn = true;
 
+    // Bitboards kept in sync with board[]: one per piece code (type | color), plus per-color occupancy.
+    private final long[] pieceBitboards;
+    private long whiteOccupancy = 0L;
+    private long blackOccupancy = 0L;
+
+    // Zobrist hash of pieces, side to move, castling rights and capturable en passant file (see Zobrist).
+    private long zobristKey = 0L;
+    // Zobrist hash of the pawns alone, for the pawn structure cache.
+    private long pawnKey = 0L;
+
+    // Material + piece-square sums from white's point of view, and the game phase (see PieceSquareTables).
+    private int midgameScore = 0;
+    private int endgameScore = 0;
+    private int gamePhase = 0;
+
     private Integer lastMoveFrom = null;
     private Integer lastMoveTo = null;
-    private Integer enPassantTarget = null;
+    private int enPassantSquare = -1; // -1 when no en passant capture is available
+    private int halfmoveClock = 0;
 
     // Track which piece was captured on the last move (for GUI notation)
     private int lastCapturedPiece = PieceConstants.NONE;
 
+    // Notified after every playMove; never copied, so simulation boards stay silent.
+    private final List<BoardListener> listeners = new ArrayList<>();
+    // Sees every piece change, including those of makeMove/unmakeMove (null = none).
+    private PieceListener pieceListener;
+
     // King/Rook moved flags for castling
     private boolean whiteKingMoved = false;
     private boolean blackKingMoved = false;
@@ -22,20 +44,55 @@ public class Board {
     private boolean blackKingsideRookMoved = false;
     private boolean blackQueensideRookMoved = false;
 
-    final String startFEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    // Undo stack for makeMove/unmakeMove. Preallocated and only grown (never per move).
+    private int[] undoMove = new int[256];        // packed Move that was played
+    private int[] undoCaptured = new int[256];    // piece removed by the move (or NONE)
+    private int[] undoCastling = new int[256];    // packed king/rook moved flags before the move
+    private int[] undoEnPassant = new int[256];   // en passant square before the move
+    private int[] undoHalfmove = new int[256];    // halfmove clock before the move
+    private long[] undoKey = new long[256];       // Zobrist key before the move (also the repetition history)
+    private int undoSize = 0;
+
+    public static final String startFEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
 
     public Board() {
         board = new int[64];
-        loadFEN();
+        pieceBitboards = new long[32];
+        loadFEN(startFEN);
+        zobristKey = computeZobristKey();
+        pawnKey = computePawnKey();
+    }
+
+    /**
+     * Creates a board from a FEN string (placement, side to move, castling, en passant, halfmove clock).
+     *
+     * @throws IllegalArgumentException if the FEN cannot be parsed
+     */
+    public Board(String fen) {
+        board = new int[64];
+        pieceBitboards = new long[32];
+        loadFEN(fen);
+        zobristKey = computeZobristKey();
+        pawnKey = computePawnKey();
     }
 
-    // Copy constructor for simulating moves.
+    // Copy constructor for simulating moves. The undo stack is copied too, so the copy keeps the
+    // repetition history and can unmake the original's moves; listeners are not copied.
     public Board(Board original) {
         this.board = original.board.clone();
+        this.pieceBitboards = original.pieceBitboards.clone();
+        this.whiteOccupancy = original.whiteOccupancy;
+        this.blackOccupancy = original.blackOccupancy;
+        this.zobristKey = original.zobristKey;
+        this.pawnKey = original.pawnKey;
+        this.midgameScore = original.midgameScore;
+        this.endgameScore = original.endgameScore;
+        this.gamePhase = original.gamePhase;
         this.isWhiteTurn = original.isWhiteTurn;
         this.lastMoveFrom = original.lastMoveFrom;
         this.lastMoveTo = original.lastMoveTo;
-        this.enPassantTarget = original.enPassantTarget;
+        this.enPassantSquare = original.enPassantSquare;
+        this.halfmoveClock = original.halfmoveClock;
         this.lastCapturedPiece = original.lastCapturedPiece;
         this.whiteKingMoved = original.whiteKingMoved;
         this.blackKingMoved = original.blackKingMoved;
@@ -43,14 +100,24 @@ public class Board {
         this.whiteQueensideRookMoved = original.whiteQueensideRookMoved;
         this.blackKingsideRookMoved = original.blackKingsideRookMoved;
         this.blackQueensideRookMoved = original.blackQueensideRookMoved;
+        this.undoMove = original.undoMove.clone();
+        this.undoCaptured = original.undoCaptured.clone();
+        this.undoCastling = original.undoCastling.clone();
+        this.undoEnPassant = original.undoEnPassant.clone();
+        this.undoHalfmove = original.undoHalfmove.clone();
+        this.undoKey = original.undoKey.clone();
+        this.undoSize = original.undoSize;
     }
 
     // ---------------------------------------------------------
-    // 1) FEN loading (basic)
+    // 1) FEN loading
     // ---------------------------------------------------------
-    private void loadFEN() {
-        final String[] parts = startFEN.split(" ");
+    private void loadFEN(String fen) {
+        final String[] parts = fen.trim().split("\\s+");
         String[] rows = parts[0].split("/");
+        if (rows.length != 8) {
+            throw new IllegalArgumentException("FEN must have 8 ranks: " + fen);
+        }
 
         for (int rank = 8; rank >= 1; rank--) {
             String row = rows[8 - rank];
@@ -68,8 +135,11 @@ public class Board {
                         case 'n' -> PieceConstants.KNIGHT;
                         case 'b' -> PieceConstants.BISHOP;
                         case 'p' -> PieceConstants.PAWN;
-                        default -> PieceConstants.NONE;
+                        default -> throw new IllegalArgumentException("Bad piece '" + ch + "' in FEN: " + fen);
                     };
+                    if (fileIndex > 7) {
+                        throw new IllegalArgumentException("Rank too long in FEN: " + fen);
+                    }
 
                     int index = getIndex((char) ('a' + fileIndex), rank);
                     setPiece(index, piece | color);
@@ -78,6 +148,27 @@ public class Board {
                 }
             }
         }
+
+        // Optional fields default to "w - - 0".
+        isWhiteTurn = parts.length < 2 || parts[1].equals("w");
+
+        // Castling rights map onto the king/rook moved flags.
+        String castling = parts.length > 2 ? parts[2] : "-";
+        whiteKingsideRookMoved = castling.indexOf('K') < 0;
+        whiteQueensideRookMoved = castling.indexOf('Q') < 0;
+        blackKingsideRookMoved = castling.indexOf('k') < 0;
+        blackQueensideRookMoved = castling.indexOf('q') < 0;
+        whiteKingMoved = whiteKingsideRookMoved && whiteQueensideRookMoved;
+        blackKingMoved = blackKingsideRookMoved && blackQueensideRookMoved;
+
+        String enPassant = parts.length > 3 ? parts[3] : "-";
+        enPassantSquare = enPassant.equals("-") ? -1 : getIndex(enPassant.charAt(0), enPassant.charAt(1) - '0');
+
+        try {
+            halfmoveClock = parts.length > 4 ? Integer.parseInt(parts[4]) : 0;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad halfmove clock in FEN: " + fen, e);
+        }
     }
 
     private int getIndex(char file, int rank) {
@@ -94,7 +185,118 @@ public class Board {
 
     public void setPiece(int index, int piece) {
         if (index < 0 || index >= 64) return;
+        long bit = 1L << index;
+        int oldPiece = board[index];
+        if (oldPiece != PieceConstants.NONE) {
+            zobristKey ^= Zobrist.PIECE_KEYS[oldPiece][index];
+            if ((oldPiece & 7) == PieceConstants.PAWN) pawnKey ^= Zobrist.PIECE_KEYS[oldPiece][index];
+            midgameScore -= PieceSquareTables.MIDGAME[oldPiece][index];
+            endgameScore -= PieceSquareTables.ENDGAME[oldPiece][index];
+            gamePhase -= PieceSquareTables.PHASE[oldPiece];
+            pieceBitboards[oldPiece] &= ~bit;
+            if ((oldPiece & PieceConstants.WHITE) != 0) whiteOccupancy &= ~bit;
+            else blackOccupancy &= ~bit;
+            if (pieceListener != null) pieceListener.pieceRemoved(oldPiece, index);
+        }
         board[index] = piece;
+        if (piece != PieceConstants.NONE) {
+            zobristKey ^= Zobrist.PIECE_KEYS[piece][index];
+            if ((piece & 7) == PieceConstants.PAWN) pawnKey ^= Zobrist.PIECE_KEYS[piece][index];
+            midgameScore += PieceSquareTables.MIDGAME[piece][index];
+            endgameScore += PieceSquareTables.ENDGAME[piece][index];
+            gamePhase += PieceSquareTables.PHASE[piece];
+            pieceBitboards[piece] |= bit;
+            if ((piece & PieceConstants.WHITE) != 0) whiteOccupancy |= bit;
+            else blackOccupancy |= bit;
+            if (pieceListener != null) pieceListener.pieceAdded(piece, index);
+        }
+    }
+
+    /**
+     * Returns the bitboard of all squares holding the given piece code (type | color).
+     */
+    public long getBitboard(int piece) {
+        return pieceBitboards[piece];
+    }
+
+    public long getOccupancy() {
+        return whiteOccupancy | blackOccupancy;
+    }
+
+    /**
+     * Returns the 64-bit Zobrist key of the current position (kept up to date by every move).
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Recomputes the Zobrist key from scratch; should always equal {@link #getZobristKey()}.
+     */
+    public long computeZobristKey() {
+        long key = Zobrist.CASTLING_KEYS[castlingRights()];
+        for (int i = 0; i < 64; i++) {
+            if (board[i] != PieceConstants.NONE) key ^= Zobrist.PIECE_KEYS[board[i]][i];
+        }
+        if (isEnPassantCapturable(enPassantSquare, isWhiteTurn)) key ^= Zobrist.EN_PASSANT_KEYS[enPassantSquare % 8];
+        if (!isWhiteTurn) key ^= Zobrist.BLACK_TO_MOVE_KEY;
+        return key;
+    }
+
+    /**
+     * Returns the Zobrist key of the pawns alone (kept up to date by every move).
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * Recomputes the pawn key from scratch; should always equal {@link #getPawnKey()}.
+     */
+    public long computePawnKey() {
+        long key = 0L;
+        for (int i = 0; i < 64; i++) {
+            if ((board[i] & 7) == PieceConstants.PAWN) key ^= Zobrist.PIECE_KEYS[board[i]][i];
+        }
+        return key;
+    }
+
+    /**
+     * Returns true if the current position already occurred earlier in the move history
+     * (same side to move, since the last capture or pawn move).
+     */
+    public boolean isRepetition() {
+        int oldest = Math.max(0, undoSize - halfmoveClock);
+        for (int i = undoSize - 2; i >= oldest; i -= 2) {
+            if (undoKey[i] == zobristKey) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Material + piece-square score for the midgame, from white's point of view (kept incrementally).
+     */
+    public int getMidgameScore() {
+        return midgameScore;
+    }
+
+    /**
+     * Material + piece-square score for the endgame, from white's point of view (kept incrementally).
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * Game phase from {@link PieceSquareTables#MAX_PHASE} (all pieces) down to 0 (kings and pawns only).
+     * May exceed the maximum after promotions.
+     */
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
+    public long getOccupancy(boolean isWhite) {
+        return isWhite ? whiteOccupancy : blackOccupancy;
     }
 
     public boolean isWhiteTurn() {
@@ -102,56 +304,99 @@ public class Board {
     }
 
     public Integer getEnPassantTarget() {
-        return enPassantTarget;
+        return enPassantSquare >= 0 ? enPassantSquare : null;
+    }
+
+    // Same as getEnPassantTarget, but -1 instead of null (no boxing in move generation).
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Returns the last move made with makeMove (and not yet unmade), or {@link Move#NONE}.
+     */
+    public int getLastMove() {
+        return undoSize > 0 ? undoMove[undoSize - 1] : Move.NONE;
     }
 
     // ---------------------------------------------------------
     // 3) Generating valid moves (filtering out moves that leave king in check)
     // ---------------------------------------------------------
+    /**
+     * Returns the target squares of the legal moves for the piece on {@code index} (GUI helper).
+     * Promotions appear once per target square.
+     */
     public List<Integer> getValidMoves(int index) {
+        List<Integer> targets = new ArrayList<>();
         int piece = getPiece(index);
-        if (piece == PieceConstants.NONE) return new ArrayList<>();
+        if (piece == PieceConstants.NONE) return targets;
         boolean isWhite = ((piece & PieceConstants.WHITE) != 0);
 
         // Must match the side to move
         if (isWhite != isWhiteTurn) {
-            return new ArrayList<>();
+            return targets;
         }
 
-        List<Integer> moves;
-        switch (piece & 7) {
-            case PieceConstants.PAWN -> moves = ValidPawnMoves.getValidMoves(this, index, isWhite);
-            case PieceConstants.KNIGHT -> moves = ValidKnightMoves.getValidMoves(this, index, isWhite);
-            case PieceConstants.BISHOP -> moves = ValidBishopMoves.getValidMoves(this, index, isWhite);
-            case PieceConstants.ROOK -> moves = ValidRookMoves.getValidMoves(this, index, isWhite);
-            case PieceConstants.QUEEN -> moves = ValidQueenMoves.getValidMoves(this, index, isWhite);
-            case PieceConstants.KING -> moves = ValidKingMoves.getValidMoves(this, index, isWhite);
-            default -> moves = new ArrayList<>();
+        MoveList moves = new MoveList();
+        generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int toIndex = Move.to(move);
+            if (Move.from(move) == index && !targets.contains(toIndex)) {
+                targets.add(toIndex);
+            }
         }
+        return targets;
+    }
 
-        // Filter out moves that leave the king in check.
-        List<Integer> legalMoves = new ArrayList<>();
-        for (Integer move : moves) {
-            Board simulation = new Board(this);
-            simulation.setPiece(move, simulation.getPiece(index));
-            simulation.setPiece(index, PieceConstants.NONE);
-            if (!simulation.isKingInCheck(isWhite)) {
-                legalMoves.add(move);
-            }
+    /**
+     * Appends every pseudo-legal move for the side to move to {@code moves}.
+     */
+    public void generateMoves(MoveList moves) {
+        long pieces = getOccupancy(isWhiteTurn);
+        while (pieces != 0) {
+            int index = Long.numberOfTrailingZeros(pieces);
+            generatePieceMoves(index, board[index], moves);
+            pieces &= pieces - 1;
+        }
+    }
+
+    /**
+     * Appends every legal move for the side to move to {@code moves} (see {@link MoveGenerator}).
+     */
+    public void generateLegalMoves(MoveList moves) {
+        MoveGenerator.generateLegalMoves(this, moves);
+    }
+
+    private void generatePieceMoves(int index, int piece, MoveList moves) {
+        boolean isWhite = ((piece & PieceConstants.WHITE) != 0);
+        switch (piece & 7) {
+            case PieceConstants.PAWN -> ValidPawnMoves.generateMoves(this, index, isWhite, moves);
+            case PieceConstants.KNIGHT -> ValidKnightMoves.generateMoves(this, index, isWhite, moves);
+            case PieceConstants.BISHOP -> ValidBishopMoves.generateMoves(this, index, isWhite, moves);
+            case PieceConstants.ROOK -> ValidRookMoves.generateMoves(this, index, isWhite, moves);
+            case PieceConstants.QUEEN -> ValidQueenMoves.generateMoves(this, index, isWhite, moves);
+            case PieceConstants.KING -> ValidKingMoves.generateMoves(this, index, isWhite, moves);
+            default -> { }
         }
-        return legalMoves;
     }
 
     // Helper method: find the king's position for a given side.
     private int findKing(boolean isWhite) {
-        for (int i = 0; i < 64; i++) {
-            int p = getPiece(i);
-            if (p != PieceConstants.NONE && (p & 7) == PieceConstants.KING &&
-                    (((p & PieceConstants.WHITE) != 0) == isWhite)) {
-                return i;
-            }
-        }
-        return -1; // Should never happen.
+        long kings = pieceBitboards[PieceConstants.KING | (isWhite ? PieceConstants.WHITE : PieceConstants.BLACK)];
+        if (kings == 0) return -1; // Should never happen.
+        return Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * Returns true if the side to move is in check.
+     */
+    public boolean isInCheck() {
+        return isKingInCheck(isWhiteTurn);
     }
 
     // Helper method: returns true if the king for the given side is in check.
@@ -164,222 +409,354 @@ public class Board {
     // ---------------------------------------------------------
     // 4) Check if a square is under attack and get attack squares
     // ---------------------------------------------------------
+    /**
+     * Works backwards from {@code index}: looks for enemy pawns, knights and kings on the squares
+     * that would attack it, then for sliders along its rays. Stops at the first attacker found.
+     */
     public boolean isSquareUnderAttack(int index, boolean byWhite) {
-        for (int i = 0; i < 64; i++) {
-            int p = getPiece(i);
-            if (p == PieceConstants.NONE) continue;
-            boolean isWhitePiece = ((p & PieceConstants.WHITE) != 0);
-            if (isWhitePiece != byWhite) continue;
-            List<Integer> attackSquares = getAttackSquares(i);
-            if (attackSquares.contains(index)) {
-                return true;
-            }
+        int color = byWhite ? PieceConstants.WHITE : PieceConstants.BLACK;
+        // A pawn of the attacking color hits index exactly when an opposite-colored pawn on index would hit it.
+        if ((Bitboards.pawnAttacks(index, !byWhite) & pieceBitboards[PieceConstants.PAWN | color]) != 0) return true;
+        if ((Bitboards.knightAttacks(index) & pieceBitboards[PieceConstants.KNIGHT | color]) != 0) return true;
+        if ((Bitboards.kingAttacks(index) & pieceBitboards[PieceConstants.KING | color]) != 0) return true;
+
+        long occupancy = getOccupancy();
+        long queens = pieceBitboards[PieceConstants.QUEEN | color];
+        long diagonalSliders = pieceBitboards[PieceConstants.BISHOP | color] | queens;
+        if (diagonalSliders != 0 && (Bitboards.bishopAttacks(index, occupancy) & diagonalSliders) != 0) return true;
+        long straightSliders = pieceBitboards[PieceConstants.ROOK | color] | queens;
+        return straightSliders != 0 && (Bitboards.rookAttacks(index, occupancy) & straightSliders) != 0;
+    }
+
+    /**
+     * Returns every piece of either color attacking {@code index}, treating {@code occupancy}
+     * as the set of blockers (lets callers "remove" pieces, e.g. for exchange evaluation).
+     */
+    public long getAttackersTo(int index, long occupancy) {
+        long whitePawns = pieceBitboards[PieceConstants.PAWN | PieceConstants.WHITE];
+        long blackPawns = pieceBitboards[PieceConstants.PAWN | PieceConstants.BLACK];
+        long knights = pieceBitboards[PieceConstants.KNIGHT | PieceConstants.WHITE] | pieceBitboards[PieceConstants.KNIGHT | PieceConstants.BLACK];
+        long kings = pieceBitboards[PieceConstants.KING | PieceConstants.WHITE] | pieceBitboards[PieceConstants.KING | PieceConstants.BLACK];
+        long queens = pieceBitboards[PieceConstants.QUEEN | PieceConstants.WHITE] | pieceBitboards[PieceConstants.QUEEN | PieceConstants.BLACK];
+        long bishops = pieceBitboards[PieceConstants.BISHOP | PieceConstants.WHITE] | pieceBitboards[PieceConstants.BISHOP | PieceConstants.BLACK] | queens;
+        long rooks = pieceBitboards[PieceConstants.ROOK | PieceConstants.WHITE] | pieceBitboards[PieceConstants.ROOK | PieceConstants.BLACK] | queens;
+
+        return ((Bitboards.pawnAttacks(index, false) & whitePawns)
+                | (Bitboards.pawnAttacks(index, true) & blackPawns)
+                | (Bitboards.knightAttacks(index) & knights)
+                | (Bitboards.kingAttacks(index) & kings)
+                | (Bitboards.bishopAttacks(index, occupancy) & bishops)
+                | (Bitboards.rookAttacks(index, occupancy) & rooks)) & occupancy;
+    }
+
+    /**
+     * Returns the bitboard of all squares attacked by the given side (pawns via shifts, other
+     * pieces via their attack tables).
+     */
+    public long getAttackedSquares(boolean byWhite) {
+        return getAttackedSquares(byWhite, getOccupancy());
+    }
+
+    /**
+     * Same as {@link #getAttackedSquares(boolean)}, but sliders are blocked only by {@code occupancy}
+     * (e.g. with the defending king lifted off so squares "behind" it count as attacked).
+     */
+    public long getAttackedSquares(boolean byWhite, long occupancy) {
+        int color = byWhite ? PieceConstants.WHITE : PieceConstants.BLACK;
+        long attacked = Bitboards.pawnAttacks(pieceBitboards[PieceConstants.PAWN | color], byWhite);
+
+        long knights = pieceBitboards[PieceConstants.KNIGHT | color];
+        while (knights != 0) {
+            attacked |= Bitboards.knightAttacks(Long.numberOfTrailingZeros(knights));
+            knights &= knights - 1;
         }
-        return false;
+        long queens = pieceBitboards[PieceConstants.QUEEN | color];
+        long diagonalSliders = pieceBitboards[PieceConstants.BISHOP | color] | queens;
+        while (diagonalSliders != 0) {
+            attacked |= Bitboards.bishopAttacks(Long.numberOfTrailingZeros(diagonalSliders), occupancy);
+            diagonalSliders &= diagonalSliders - 1;
+        }
+        long straightSliders = pieceBitboards[PieceConstants.ROOK | color] | queens;
+        while (straightSliders != 0) {
+            attacked |= Bitboards.rookAttacks(Long.numberOfTrailingZeros(straightSliders), occupancy);
+            straightSliders &= straightSliders - 1;
+        }
+        long king = pieceBitboards[PieceConstants.KING | color];
+        if (king != 0) {
+            attacked |= Bitboards.kingAttacks(Long.numberOfTrailingZeros(king));
+        }
+        return attacked;
     }
 
-    public List<Integer> getAttackSquares(int index) {
+    /**
+     * Returns the squares attacked by the piece on {@code index} as a bitboard (0 for an empty square).
+     */
+    public long getAttacks(int index) {
         int piece = getPiece(index);
-        if (piece == PieceConstants.NONE) return new ArrayList<>();
+        if (piece == PieceConstants.NONE) return 0L;
         boolean isWhite = ((piece & PieceConstants.WHITE) != 0);
 
-        switch (piece & 7) {
-            case PieceConstants.PAWN -> {
-                return ValidPawnMoves.getAttackSquares(this, index, isWhite);
-            }
-            case PieceConstants.KNIGHT -> {
-                return ValidKnightMoves.getValidMoves(this, index, isWhite);
-            }
-            case PieceConstants.BISHOP -> {
-                return ValidBishopMoves.getValidMoves(this, index, isWhite);
-            }
-            case PieceConstants.ROOK -> {
-                return ValidRookMoves.getValidMoves(this, index, isWhite);
-            }
-            case PieceConstants.QUEEN -> {
-                return ValidQueenMoves.getValidMoves(this, index, isWhite);
-            }
-            case PieceConstants.KING -> {
-                return ValidKingMoves.getAttackSquares(this, index, isWhite);
-            }
-        }
-        return new ArrayList<>();
+        return switch (piece & 7) {
+            case PieceConstants.PAWN -> ValidPawnMoves.getAttacks(this, index, isWhite);
+            case PieceConstants.KNIGHT -> ValidKnightMoves.getAttacks(this, index, isWhite);
+            case PieceConstants.BISHOP -> ValidBishopMoves.getAttacks(this, index, isWhite);
+            case PieceConstants.ROOK -> ValidRookMoves.getAttacks(this, index, isWhite);
+            case PieceConstants.QUEEN -> ValidQueenMoves.getAttacks(this, index, isWhite);
+            case PieceConstants.KING -> ValidKingMoves.getAttacks(this, index, isWhite);
+            default -> 0L;
+        };
     }
 
     // ---------------------------------------------------------
-    // 5) Make Move (includes castling, en passant, promotion)
+    // 5) Play Move (validated, notifies listeners; includes castling, en passant, promotion)
     // ---------------------------------------------------------
     /**
-     * Executes a move from the given fromIndex to toIndex.
-     * Also calls gui.onPieceCaptured(capturedPiece, capturingSideIsWhite) if a capture occurs.
+     * Validates and plays a move from the given fromIndex to toIndex, then notifies every
+     * {@link BoardListener}. Has no other side effects (no sound, printing or repainting).
+     *
+     * @param promotionType bare piece type for a promoting pawn; NONE defaults to a queen
+     * @return false (and leaves the board untouched) if the move is not legal
      */
-    public boolean makeMove(int fromIndex, int toIndex, AlternateChessGUI gui) {
-        int piece = getPiece(fromIndex);
-        if (piece == PieceConstants.NONE) return false;
-
-        List<Integer> validMoves = getValidMoves(fromIndex);
-        if (!validMoves.contains(toIndex)) {
-            System.out.println("❌ Invalid move!");
-            return false;
+    public boolean playMove(int fromIndex, int toIndex, int promotionType) {
+        int move = findLegalMove(fromIndex, toIndex, promotionType);
+        if (move == Move.NONE) return false;
+
+        if (Move.isEnPassant(move)) {
+            lastCapturedPiece = getPiece(isWhiteTurn ? (toIndex - 8) : (toIndex + 8));
+        } else {
+            lastCapturedPiece = Move.isCapture(move) ? getPiece(toIndex) : PieceConstants.NONE;
+        }
+        makeMove(move);
+        lastMoveFrom = fromIndex;
+        lastMoveTo = toIndex;
+
+        for (BoardListener listener : listeners) {
+            listener.onMovePlayed(this, move, lastCapturedPiece);
         }
+        return true;
+    }
 
-        int targetPiece = getPiece(toIndex);
-        // 1. Prevent capturing the king.
-        if (targetPiece != PieceConstants.NONE && (targetPiece & 7) == PieceConstants.KING) {
-            System.out.println("❌ Cannot capture the king!");
-            return false;
+    /**
+     * Returns the legal packed {@link Move} matching from/to (and the promotion piece, defaulting
+     * to a queen), or {@link Move#NONE} if there is none.
+     */
+    public int findLegalMove(int fromIndex, int toIndex, int promotionType) {
+        if (fromIndex < 0 || fromIndex >= 64 || toIndex < 0 || toIndex >= 64) return Move.NONE;
+        int wantedPromotion = promotionType == PieceConstants.NONE ? PieceConstants.QUEEN : promotionType;
+        MoveList moves = new MoveList();
+        generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.from(move) == fromIndex && Move.to(move) == toIndex
+                    && (!Move.isPromotion(move) || Move.promotionType(move) == wantedPromotion)) {
+                return move;
+            }
         }
+        return Move.NONE;
+    }
 
-        boolean isCapture = (targetPiece != PieceConstants.NONE);
-        boolean isWhite = ((piece & PieceConstants.WHITE) != 0);
+    public void addListener(BoardListener listener) {
+        listeners.add(listener);
+    }
 
-        // Reset lastCapturedPiece at the start of a move.
-        lastCapturedPiece = PieceConstants.NONE;
+    public void removeListener(BoardListener listener) {
+        listeners.remove(listener);
+    }
 
-        // ----------------------
-        // Handle Castling
-        // ----------------------
-        if ((piece & 7) == PieceConstants.KING && Math.abs(fromIndex - toIndex) == 2) {
-            if (isWhite ? whiteKingMoved : blackKingMoved) {
-                System.out.println("❌ Castling not allowed! King has already moved.");
-                return false;
-            }
-            int rookFrom, rookTo;
-            if (toIndex == (isWhite ? 6 : 62)) { // Kingside
-                rookFrom = isWhite ? 7 : 63;
-                rookTo = isWhite ? 5 : 61;
-            } else { // Queenside
-                rookFrom = isWhite ? 0 : 56;
-                rookTo = isWhite ? 3 : 59;
-            }
-            if ((rookFrom == 7 && whiteKingsideRookMoved) ||
-                    (rookFrom == 0 && whiteQueensideRookMoved) ||
-                    (rookFrom == 63 && blackKingsideRookMoved) ||
-                    (rookFrom == 56 && blackQueensideRookMoved)) {
-                System.out.println("❌ Castling not allowed! Rook has already moved.");
-                return false;
-            }
-            int expectedRook = PieceConstants.ROOK | (isWhite ? PieceConstants.WHITE : PieceConstants.BLACK);
-            int actualRook = getPiece(rookFrom);
-            if (actualRook != expectedRook) {
-                System.out.println("❌ Castling not allowed! Rook missing or incorrect.");
-                return false;
-            }
-            if (isWhite) {
-                if (toIndex == 6) {
-                    if (getPiece(5) != PieceConstants.NONE || getPiece(6) != PieceConstants.NONE) {
-                        System.out.println("❌ Castling not allowed! Pieces in between.");
-                        return false;
-                    }
-                } else {
-                    if (getPiece(1) != PieceConstants.NONE ||
-                            getPiece(2) != PieceConstants.NONE ||
-                            getPiece(3) != PieceConstants.NONE) {
-                        System.out.println("❌ Castling not allowed! Pieces in between.");
-                        return false;
-                    }
-                }
-            } else {
-                if (toIndex == 62) {
-                    if (getPiece(61) != PieceConstants.NONE || getPiece(62) != PieceConstants.NONE) {
-                        System.out.println("❌ Castling not allowed! Pieces in between.");
-                        return false;
-                    }
-                } else {
-                    if (getPiece(57) != PieceConstants.NONE ||
-                            getPiece(58) != PieceConstants.NONE ||
-                            getPiece(59) != PieceConstants.NONE) {
-                        System.out.println("❌ Castling not allowed! Pieces in between.");
-                        return false;
-                    }
-                }
-            }
-            int middleSquare = (fromIndex + toIndex) / 2;
-            if (isSquareUnderAttack(fromIndex, !isWhite) ||
-                    isSquareUnderAttack(middleSquare, !isWhite) ||
-                    isSquareUnderAttack(toIndex, !isWhite)) {
-                System.out.println("❌ Castling not allowed! King passes through or lands on an attacked square.");
-                return false;
-            }
-            // Perform castling move
-            setPiece(rookTo, actualRook);
-            setPiece(rookFrom, PieceConstants.NONE);
-            setPiece(toIndex, piece);
-            setPiece(fromIndex, PieceConstants.NONE);
-            if (isWhite) {
-                whiteKingMoved = true;
-                if (rookFrom == 7) whiteKingsideRookMoved = true;
-                else whiteQueensideRookMoved = true;
-            } else {
-                blackKingMoved = true;
-                if (rookFrom == 63) blackKingsideRookMoved = true;
-                else blackQueensideRookMoved = true;
-            }
-            SoundManager.playCastlingSound();
-            gui.repaintBoard();
-            isWhiteTurn = !isWhiteTurn;
-            return true;
+    /**
+     * Sets the single {@link PieceListener} (null = none). Unlike board listeners it is called
+     * for every search move, so it must be cheap; it is not copied by the copy constructor.
+     */
+    public void setPieceListener(PieceListener pieceListener) {
+        this.pieceListener = pieceListener;
+    }
+
+    public PieceListener getPieceListener() {
+        return pieceListener;
+    }
+
+    // ---------------------------------------------------------
+    // 5b) Reversible make/unmake (no validation, no GUI, no allocation)
+    // ---------------------------------------------------------
+    /**
+     * Plays a pseudo-legal move given as squares; {@code promotionType} is a bare piece type such as
+     * {@link PieceConstants#QUEEN}, or NONE to leave a promoting pawn as a pawn.
+     */
+    public void makeMove(int fromIndex, int toIndex, int promotionType) {
+        makeMove(createMove(fromIndex, toIndex, promotionType));
+    }
+
+    /**
+     * Builds the packed {@link Move} for a from/to pair in the current position, working out the
+     * capture, double-push, castling and en passant flags.
+     */
+    public int createMove(int fromIndex, int toIndex, int promotionType) {
+        int type = board[fromIndex] & 7;
+        boolean isCapture = board[toIndex] != PieceConstants.NONE;
+        if (promotionType != PieceConstants.NONE) {
+            return Move.encodePromotion(fromIndex, toIndex, promotionType, isCapture);
         }
+        if (type == PieceConstants.KING && toIndex - fromIndex == 2) return Move.encode(fromIndex, toIndex, Move.KING_CASTLE);
+        if (type == PieceConstants.KING && fromIndex - toIndex == 2) return Move.encode(fromIndex, toIndex, Move.QUEEN_CASTLE);
+        if (type == PieceConstants.PAWN && toIndex == enPassantSquare) return Move.encode(fromIndex, toIndex, Move.EN_PASSANT);
+        if (type == PieceConstants.PAWN && Math.abs(fromIndex - toIndex) == 16) {
+            return Move.encode(fromIndex, toIndex, Move.DOUBLE_PAWN_PUSH);
+        }
+        return Move.encode(fromIndex, toIndex, isCapture ? Move.CAPTURE : Move.QUIET);
+    }
 
-        // ----------------------
-        // Check for en passant
-        // ----------------------
-        Integer epTarget = getEnPassantTarget();
-        boolean isEnPassant = (piece & 7) == PieceConstants.PAWN && epTarget != null && epTarget == toIndex;
+    /**
+     * Plays a pseudo-legal packed {@link Move} and pushes everything needed to take it back onto
+     * the undo stack. Castling (rook hop), en passant and promotion are driven by the move flags.
+     */
+    public void makeMove(int move) {
+        int fromIndex = Move.from(move);
+        int toIndex = Move.to(move);
+        int flags = Move.flags(move);
+        int piece = board[fromIndex];
+        boolean isWhite = (piece & PieceConstants.WHITE) != 0;
+        int captured = board[toIndex];
+
+        if (undoSize == undoMove.length) growUndoStack();
+        int oldRights = castlingRights();
+        boolean oldEnPassantHashed = isEnPassantCapturable(enPassantSquare, isWhite);
+        undoCastling[undoSize] = packMovedFlags();
+        undoEnPassant[undoSize] = enPassantSquare;
+        undoHalfmove[undoSize] = halfmoveClock;
+        undoKey[undoSize] = zobristKey;
 
-        // Execute normal move
-        setPiece(toIndex, piece);
         setPiece(fromIndex, PieceConstants.NONE);
-
-        // Handle en passant capture
-        if (isEnPassant) {
+        if (flags == Move.EN_PASSANT) {
             int capturedPawnIndex = isWhite ? (toIndex - 8) : (toIndex + 8);
-            lastCapturedPiece = getPiece(capturedPawnIndex);
+            captured = board[capturedPawnIndex];
             setPiece(capturedPawnIndex, PieceConstants.NONE);
-            isCapture = true;
         }
+        int promotionType = Move.promotionType(move);
+        setPiece(toIndex, promotionType != PieceConstants.NONE ? (promotionType | (piece & 24)) : piece);
 
-        // If a normal capture occurred, store the captured piece
-        if (!isEnPassant && isCapture) {
-            lastCapturedPiece = targetPiece;
+        if (flags == Move.KING_CASTLE || flags == Move.QUEEN_CASTLE) {
+            int rookFrom = flags == Move.KING_CASTLE ? fromIndex + 3 : fromIndex - 4;
+            int rookTo = flags == Move.KING_CASTLE ? fromIndex + 1 : fromIndex - 1;
+            setPiece(rookTo, board[rookFrom]);
+            setPiece(rookFrom, PieceConstants.NONE);
         }
 
-        // Mark king/rook as having moved if applicable
+        // Castling flags: king moves, rook leaves its corner, or a rook is captured in its corner.
         if ((piece & 7) == PieceConstants.KING) {
             if (isWhite) whiteKingMoved = true;
             else blackKingMoved = true;
-        } else if ((piece & 7) == PieceConstants.ROOK) {
-            switch (fromIndex) {
-                case 7 -> whiteKingsideRookMoved = true;
-                case 0 -> whiteQueensideRookMoved = true;
-                case 63 -> blackKingsideRookMoved = true;
-                case 56 -> blackQueensideRookMoved = true;
-                default -> { }
-            }
         }
+        markRookMoved(fromIndex);
+        markRookMoved(toIndex);
+        zobristKey ^= Zobrist.CASTLING_KEYS[oldRights] ^ Zobrist.CASTLING_KEYS[castlingRights()];
+
+        if (oldEnPassantHashed) zobristKey ^= Zobrist.EN_PASSANT_KEYS[enPassantSquare % 8];
+        enPassantSquare = flags == Move.DOUBLE_PAWN_PUSH ? (fromIndex + toIndex) / 2 : -1;
+        if (isEnPassantCapturable(enPassantSquare, !isWhite)) zobristKey ^= Zobrist.EN_PASSANT_KEYS[enPassantSquare % 8];
+        halfmoveClock = ((piece & 7) == PieceConstants.PAWN || captured != PieceConstants.NONE) ? 0 : halfmoveClock + 1;
+        isWhiteTurn = !isWhiteTurn;
+        zobristKey ^= Zobrist.BLACK_TO_MOVE_KEY;
 
-        // Pawn promotion check (GUI will handle promotion popup)
-        int promotionRank = isWhite ? 7 : 0;
-        boolean isPromotion = ((piece & 7) == PieceConstants.PAWN) && ((toIndex / 8) == promotionRank);
-        if (isPromotion) {
-            System.out.println("Promotion");
-            // Do nothing here to let GUI handle promotion popup
-        } else if (isCapture) {
-            SoundManager.playCaptureSound();
-        } else {
-            SoundManager.playMoveSound();
+        undoMove[undoSize] = move;
+        undoCaptured[undoSize] = captured;
+        undoSize++;
+    }
+
+    /**
+     * Takes back the most recent {@link #makeMove(int)}.
+     */
+    public void unmakeMove() {
+        undoSize--;
+        int move = undoMove[undoSize];
+        int fromIndex = Move.from(move);
+        int toIndex = Move.to(move);
+        int flags = Move.flags(move);
+        int captured = undoCaptured[undoSize];
+
+        int piece = board[toIndex];
+        if (Move.isPromotion(move)) {
+            piece = PieceConstants.PAWN | (piece & 24);
+        }
+        setPiece(toIndex, PieceConstants.NONE);
+        setPiece(fromIndex, piece);
+
+        if (flags == Move.EN_PASSANT) {
+            boolean isWhite = (piece & PieceConstants.WHITE) != 0;
+            setPiece(isWhite ? (toIndex - 8) : (toIndex + 8), captured);
+        } else if (captured != PieceConstants.NONE) {
+            setPiece(toIndex, captured);
         }
 
-        // Update last move info and en passant target reset/increment
-        lastMoveFrom = fromIndex;
-        lastMoveTo = toIndex;
-        enPassantTarget = null;
-        if (((piece & 7) == PieceConstants.PAWN) && Math.abs(fromIndex - toIndex) == 16) {
-            enPassantTarget = (fromIndex + toIndex) / 2;
+        if (flags == Move.KING_CASTLE || flags == Move.QUEEN_CASTLE) {
+            int rookFrom = flags == Move.KING_CASTLE ? fromIndex + 3 : fromIndex - 4;
+            int rookTo = flags == Move.KING_CASTLE ? fromIndex + 1 : fromIndex - 1;
+            setPiece(rookFrom, board[rookTo]);
+            setPiece(rookTo, PieceConstants.NONE);
         }
+
+        unpackMovedFlags(undoCastling[undoSize]);
+        enPassantSquare = undoEnPassant[undoSize];
+        halfmoveClock = undoHalfmove[undoSize];
         isWhiteTurn = !isWhiteTurn;
-        gui.repaintBoard();
-        return true;
+        zobristKey = undoKey[undoSize];
+    }
+
+    // Whether a pawn of the given side stands next to the pawn that just passed this en passant
+    // square. Only then does the square go into the key (as in Polyglot), so a double push nobody
+    // can capture leaves the same key as any other way of reaching the position.
+    private boolean isEnPassantCapturable(int square, boolean byWhite) {
+        if (square < 0 || square / 8 != (byWhite ? 5 : 2)) return false;
+        int pawn = PieceConstants.PAWN | (byWhite ? PieceConstants.WHITE : PieceConstants.BLACK);
+        int pushed = byWhite ? square - 8 : square + 8;
+        int file = square % 8;
+        return (file > 0 && board[pushed - 1] == pawn) || (file < 7 && board[pushed + 1] == pawn);
+    }
+
+    private void markRookMoved(int cornerIndex) {
+        switch (cornerIndex) {
+            case 7 -> whiteKingsideRookMoved = true;
+            case 0 -> whiteQueensideRookMoved = true;
+            case 63 -> blackKingsideRookMoved = true;
+            case 56 -> blackQueensideRookMoved = true;
+            default -> { }
+        }
+    }
+
+    // The castling rights the moved flags still allow (K = 1, Q = 2, k = 4, q = 8): a king that
+    // has moved loses both, so later rook moves no longer change the position's key.
+    private int castlingRights() {
+        int rights = 0;
+        if (!whiteKingMoved) rights |= (whiteKingsideRookMoved ? 0 : 1) | (whiteQueensideRookMoved ? 0 : 2);
+        if (!blackKingMoved) rights |= (blackKingsideRookMoved ? 0 : 4) | (blackQueensideRookMoved ? 0 : 8);
+        return rights;
+    }
+
+    private int packMovedFlags() {
+        return (whiteKingMoved ? 1 : 0)
+                | (blackKingMoved ? 2 : 0)
+                | (whiteKingsideRookMoved ? 4 : 0)
+                | (whiteQueensideRookMoved ? 8 : 0)
+                | (blackKingsideRookMoved ? 16 : 0)
+                | (blackQueensideRookMoved ? 32 : 0);
+    }
+
+    private void unpackMovedFlags(int flags) {
+        whiteKingMoved = (flags & 1) != 0;
+        blackKingMoved = (flags & 2) != 0;
+        whiteKingsideRookMoved = (flags & 4) != 0;
+        whiteQueensideRookMoved = (flags & 8) != 0;
+        blackKingsideRookMoved = (flags & 16) != 0;
+        blackQueensideRookMoved = (flags & 32) != 0;
+    }
+
+    private void growUndoStack() {
+        int capacity = undoMove.length * 2;
+        undoMove = Arrays.copyOf(undoMove, capacity);
+        undoCaptured = Arrays.copyOf(undoCaptured, capacity);
+        undoCastling = Arrays.copyOf(undoCastling, capacity);
+        undoEnPassant = Arrays.copyOf(undoEnPassant, capacity);
+        undoHalfmove = Arrays.copyOf(undoHalfmove, capacity);
+        undoKey = Arrays.copyOf(undoKey, capacity);
     }
 
     // ---------------------------------------------------------
@@ -388,20 +765,7 @@ public class Board {
     public boolean isCheckmate(boolean isWhite) {
         // If the king is not in check, it's not checkmate.
         if (!isKingInCheck(isWhite)) return false;
-
-        // For every piece belonging to the side, if at least one legal move exists, it's not checkmate.
-        for (int i = 0; i < 64; i++) {
-            int p = getPiece(i);
-            if (p == PieceConstants.NONE) continue;
-            boolean pieceIsWhite = ((p & PieceConstants.WHITE) != 0);
-            if (pieceIsWhite != isWhite) continue;
-
-            List<Integer> moves = getValidMoves(i);
-            if (!moves.isEmpty()) {
-                return false;
-            }
-        }
-        return true; // King is in check and no legal moves exist.
+        return !hasLegalMove(isWhite); // King is in check and no legal moves exist.
     }
 
     // ---------------------------------------------------------
@@ -410,20 +774,15 @@ public class Board {
     public boolean isStalemate(boolean isWhite) {
         // If the king is in check, then it's not stalemate.
         if (isKingInCheck(isWhite)) return false;
+        return !hasLegalMove(isWhite); // Not in check and no legal moves exist.
+    }
 
-        // For every piece belonging to the side, if at least one legal move exists, it's not stalemate.
-        for (int i = 0; i < 64; i++) {
-            int p = getPiece(i);
-            if (p == PieceConstants.NONE) continue;
-            boolean pieceIsWhite = ((p & PieceConstants.WHITE) != 0);
-            if (pieceIsWhite != isWhite) continue;
-
-            List<Integer> moves = getValidMoves(i);
-            if (!moves.isEmpty()) {
-                return false;
-            }
-        }
-        return true; // Not in check and no legal moves exist.
+    // Only the side to move can have legal moves.
+    private boolean hasLegalMove(boolean isWhite) {
+        if (isWhite != isWhiteTurn) return false;
+        MoveList moves = new MoveList();
+        generateLegalMoves(moves);
+        return !moves.isEmpty();
     }
 
     // ---------------------------------------------------------
@@ -0,0 +1,17 @@
+package com.ChilliSauce;
+
+/**
+ * Receives events from a {@link Board}. The rules code never plays sounds or touches
+ * the GUI itself; front ends subscribe through this interface instead.
+ */
+public interface BoardListener {
+
+    /**
+     * Called after {@link Board#playMove(int, int, int)} has applied a legal move.
+     *
+     * @param board         the board, already in the position after the move
+     * @param move          the packed {@link Move} that was played (flags tell castling, promotion, etc.)
+     * @param capturedPiece the piece that was captured, or {@link PieceConstants#NONE}
+     */
+    void onMovePlayed(Board board, int move, int capturedPiece);
+}
@@ -1,5 +1,7 @@
 package com.ChilliSauce;
 
+import com.ChilliSauce.engine.Bitbases;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -58,9 +60,9 @@ public class GameTermination {
     // Example: halfmove clock for the 50-move rule
     private int halfmoveClock = 0;
 
-    // Example: store positions to detect 3-fold repetition
-    // The key could be a FEN string or something that identifies the position + side to move
-    private final Map<String, Integer> positionCount = new HashMap<>();
+    // Store positions to detect 3-fold repetition, keyed by the board's Zobrist hash
+    // (covers pieces, side to move, castling rights and a capturable en passant file)
+    private final Map<Long, Integer> positionCount = new HashMap<>();
 
     // If either side resigns or agrees to a draw, store it here:
     private boolean whiteResigned = false;
@@ -110,10 +112,10 @@ public class GameTermination {
             halfmoveClock++;
         }
 
-        // Build a “position key” (like a FEN) that includes side to move, castling rights, etc.
-        String positionKey = buildPositionKey(board);
+        // The board maintains its Zobrist key incrementally, so no string needs to be built.
+        long positionKey = board.getZobristKey();
 
-        positionCount.put(positionKey, positionCount.getOrDefault(positionKey, 0) + 1);
+        positionCount.merge(positionKey, 1, Integer::sum);
     }
 
     // ----------------------------------------------------------------
@@ -160,8 +162,8 @@ public class GameTermination {
             return new GameResult(GameState.DRAW, DrawReason.INSUFFICIENT_MATERIAL);
         }
 
-        // 6) Check 50-move rule
-        if (halfmoveClock >= 50) {
+        // 6) Check 50-move rule (50 moves by each side = 100 halfmoves)
+        if (halfmoveClock >= 100) {
             return new GameResult(GameState.DRAW, DrawReason.FIFTY_MOVE_RULE);
         }
 
@@ -179,35 +181,50 @@ public class GameTermination {
         return new GameResult(GameState.ONGOING, DrawReason.NONE);
     }
 
+    /**
+     * The outcome with best play from here, for the endgames the bitbases cover (KPK, KRK, KQK,
+     * KBNK, and bare kings or a lone minor piece); null for any other position. Can be used to
+     * adjudicate games. O(1), though the first call waits for the bitbases to load.
+     */
+    public GameState knownOutcome(Board board) {
+        int result = Bitbases.get().probe(board);
+        if (result == Bitbases.UNKNOWN) return null;
+        if (result == Bitbases.DRAW) return GameState.DRAW;
+        boolean whiteWins = board.isWhiteTurn() == (result == Bitbases.WIN);
+        return whiteWins ? GameState.WHITE_WINS : GameState.BLACK_WINS;
+    }
+
     // ----------------------------------------------------------------
-    // Helper checks (PLACEHOLDERS) – fill in real logic yourself
+    // Helper checks
     // ----------------------------------------------------------------
 
     private boolean isCheckmate(Board board, boolean whiteToMove) {
-        // PSEUDOCODE:
-        // 1. If the side to move is not in check => false (can't be checkmate if you're not in check).
-        // 2. Generate all legal moves for that side. If none exist => checkmate, else not.
-        boolean inCheck = isInCheck(board, whiteToMove);
-        if (!inCheck) return false;
-        return !hasAnyLegalMove(board, whiteToMove);
+        return board.isCheckmate(whiteToMove);
     }
 
     private boolean isStalemate(Board board, boolean whiteToMove) {
-        // PSEUDOCODE:
-        // 1. If the side to move is in check => false.
-        // 2. If that side has no legal moves => stalemate, else not.
-        boolean inCheck = isInCheck(board, whiteToMove);
-        if (inCheck) return false;
-        return !hasAnyLegalMove(board, whiteToMove);
+        return board.isStalemate(whiteToMove);
     }
 
+    // Neither side can ever mate: no pawns, rooks or queens, and at most one minor piece
+    // (or only bishops, all on squares of one colour).
     private boolean isInsufficientMaterial(Board board) {
-        // PSEUDOCODE:
-        // Count material for each side. If only kings remain => true
-        // If one side has only king + bishop or king + knight and the other side has only king => true
-        // If both sides have only king + bishop (same color bishop) => also a known draw, etc.
-        // ...
-        return false; // placeholder
+        long heavyOrPawns = 0;
+        for (int color : new int[]{PieceConstants.WHITE, PieceConstants.BLACK}) {
+            heavyOrPawns |= board.getBitboard(PieceConstants.PAWN | color)
+                    | board.getBitboard(PieceConstants.ROOK | color)
+                    | board.getBitboard(PieceConstants.QUEEN | color);
+        }
+        if (heavyOrPawns != 0) return false;
+
+        long knights = board.getBitboard(PieceConstants.KNIGHT | PieceConstants.WHITE)
+                | board.getBitboard(PieceConstants.KNIGHT | PieceConstants.BLACK);
+        long bishops = board.getBitboard(PieceConstants.BISHOP | PieceConstants.WHITE)
+                | board.getBitboard(PieceConstants.BISHOP | PieceConstants.BLACK);
+        if (Long.bitCount(knights | bishops) <= 1) return true;
+        if (knights != 0) return false;
+        long darkSquares = 0xAA55AA55AA55AA55L;
+        return (bishops & darkSquares) == 0 || (bishops & ~darkSquares) == 0;
     }
 
     private boolean isThreefoldRepetition() {
@@ -220,31 +237,4 @@ public class GameTermination {
         return false;
     }
 
-    private boolean isInCheck(Board board, boolean whiteToMove) {
-        // PSEUDOCODE:
-        // 1. Find the king of the side to move
-        // 2. Check if that king's square is under attack by the opponent
-        // ...
-        return false; // placeholder
-    }
-
-    private boolean hasAnyLegalMove(Board board, boolean whiteToMove) {
-        // PSEUDOCODE:
-        // 1. For each square that has a piece of the side to move
-        // 2. Generate valid moves
-        // 3. If at least one valid move => true
-        // ...
-        return false; // placeholder
-    }
-
-    /**
-     * Build a unique string that identifies the current position (like FEN).
-     * Must include side to move, castling rights, en passant square, etc.
-     */
-    private String buildPositionKey(Board board) {
-        // For a fully robust approach, you'd create a FEN string or
-        // something similar. For a placeholder:
-        return "FEN_or_hash_of_position_" + (board.isWhiteTurn() ? "w" : "b");
-    }
-
 }
@@ -0,0 +1,103 @@
+package com.ChilliSauce;
+
+/**
+ * Packed 16-bit move encoding: bits 0-5 hold the from square, bits 6-11 the to square
+ * and bits 12-15 the move flags below. A move is a plain {@code int}, so move lists
+ * never box anything. The value 0 (a1a1) is never a real move and serves as "no move".
+ */
+public final class Move {
+    public static final int NONE = 0;
+
+    // Flags (bits 12-15)
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;              // + 0..3 for knight, bishop, rook, queen
+    public static final int PROMOTION_CAPTURE = 12;     // PROMOTION | CAPTURE
+
+    private static final int[] PROMOTION_TYPES = {
+            PieceConstants.KNIGHT, PieceConstants.BISHOP, PieceConstants.ROOK, PieceConstants.QUEEN
+    };
+
+    private Move() {
+    }
+
+    public static int encode(int fromIndex, int toIndex, int flags) {
+        return fromIndex | (toIndex << 6) | (flags << 12);
+    }
+
+    /**
+     * Encodes a promotion to the given bare piece type (QUEEN, ROOK, BISHOP or KNIGHT).
+     */
+    public static int encodePromotion(int fromIndex, int toIndex, int promotionType, boolean isCapture) {
+        int flags = (isCapture ? PROMOTION_CAPTURE : PROMOTION) | promotionCode(promotionType);
+        return encode(fromIndex, toIndex, flags);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return flags(move) == EN_PASSANT;
+    }
+
+    public static boolean isCastling(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    /**
+     * Returns the bare piece type a promotion creates, or NONE for other moves.
+     */
+    public static int promotionType(int move) {
+        return isPromotion(move) ? PROMOTION_TYPES[flags(move) & 3] : PieceConstants.NONE;
+    }
+
+    private static int promotionCode(int promotionType) {
+        return switch (promotionType) {
+            case PieceConstants.KNIGHT -> 0;
+            case PieceConstants.BISHOP -> 1;
+            case PieceConstants.ROOK -> 2;
+            default -> 3;
+        };
+    }
+
+    // ---------------------------------------------------------
+    // Coordinate notation ("e2e4", "e7e8q")
+    // ---------------------------------------------------------
+    public static String squareName(int index) {
+        return "" + (char) ('a' + index % 8) + (char) ('1' + index / 8);
+    }
+
+    public static String toUci(int move) {
+        if (move == NONE) return "0000";
+        String text = squareName(from(move)) + squareName(to(move));
+        return switch (promotionType(move)) {
+            case PieceConstants.QUEEN -> text + "q";
+            case PieceConstants.ROOK -> text + "r";
+            case PieceConstants.BISHOP -> text + "b";
+            case PieceConstants.KNIGHT -> text + "n";
+            default -> text;
+        };
+    }
+}
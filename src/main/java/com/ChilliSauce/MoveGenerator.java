@@ -0,0 +1,206 @@
+package com.ChilliSauce;
+
+/**
+ * Fully legal move generation. Checkers and pinned pieces are worked out once per position,
+ * then every piece's targets are masked so that only legal moves are emitted: no make/unmake
+ * and no "is my king attacked now?" scan per candidate move.
+ * <p>
+ * Moves can be generated by kind, so a search can try the noisy moves (captures and promotions)
+ * first and only generate the quiet ones if no capture caused a cutoff.
+ */
+public final class MoveGenerator {
+    public static final int NOISY = 1;  // captures, en passant and promotions
+    public static final int QUIET = 2;  // everything else, including castling
+    public static final int ALL = NOISY | QUIET;
+
+    private static final int[] PROMOTION_TYPES = {
+            PieceConstants.QUEEN, PieceConstants.ROOK, PieceConstants.BISHOP, PieceConstants.KNIGHT
+    };
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Appends every legal move for the side to move to {@code moves}.
+     */
+    public static void generateLegalMoves(Board board, MoveList moves) {
+        generateLegalMoves(board, moves, ALL, -1L);
+    }
+
+    /**
+     * Appends the legal moves of the given kind ({@link #NOISY}, {@link #QUIET} or {@link #ALL})
+     * made by pieces standing on a square in {@code fromMask}.
+     */
+    public static void generateLegalMoves(Board board, MoveList moves, int kind, long fromMask) {
+        boolean isWhite = board.isWhiteTurn();
+        int us = isWhite ? PieceConstants.WHITE : PieceConstants.BLACK;
+        int them = isWhite ? PieceConstants.BLACK : PieceConstants.WHITE;
+        long own = board.getOccupancy(isWhite);
+        long enemy = board.getOccupancy(!isWhite);
+        long occupancy = own | enemy;
+
+        long kingBit = board.getBitboard(PieceConstants.KING | us);
+        if (kingBit == 0) return; // No king (edited position): nothing sensible to generate.
+        int kingIndex = Long.numberOfTrailingZeros(kingBit);
+
+        // Non-pawn moves are noisy exactly when they capture.
+        long kindMask = switch (kind) {
+            case NOISY -> enemy;
+            case QUIET -> ~enemy;
+            default -> -1L;
+        };
+
+        long enemyQueens = board.getBitboard(PieceConstants.QUEEN | them);
+        long enemyDiagonal = board.getBitboard(PieceConstants.BISHOP | them) | enemyQueens;
+        long enemyStraight = board.getBitboard(PieceConstants.ROOK | them) | enemyQueens;
+
+        // 1) King moves: squares the enemy attacks with our king lifted off the board (so sliders see through it).
+        long danger = board.getAttackedSquares(!isWhite, occupancy ^ kingBit);
+        if ((fromMask & kingBit) != 0) {
+            moves.addTargets(kingIndex, Bitboards.kingAttacks(kingIndex) & ~own & ~danger & kindMask, enemy);
+        }
+
+        long checkers = board.getAttackersTo(kingIndex, occupancy) & enemy;
+        int checkerCount = Long.bitCount(checkers);
+        if (checkerCount > 1) return; // Double check: only the king may move.
+
+        // 2) Check mask: with one checker we must capture it or block its line.
+        long checkMask = -1L;
+        if (checkerCount == 1) {
+            int checkerIndex = Long.numberOfTrailingZeros(checkers);
+            checkMask = checkers | Bitboards.between(kingIndex, checkerIndex);
+        } else if ((kind & QUIET) != 0 && (fromMask & kingBit) != 0) {
+            generateCastling(board, isWhite, kingIndex, occupancy, danger, moves);
+        }
+
+        // 3) Pinned pieces: exactly one of our pieces between the king and an enemy slider.
+        long pinned = 0L;
+        long snipers = (Bitboards.rookAttacks(kingIndex, enemy) & enemyStraight)
+                | (Bitboards.bishopAttacks(kingIndex, enemy) & enemyDiagonal);
+        while (snipers != 0) {
+            int sniperIndex = Long.numberOfTrailingZeros(snipers);
+            long blockers = Bitboards.between(kingIndex, sniperIndex) & occupancy;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & own;
+            }
+            snipers &= snipers - 1;
+        }
+
+        // 4) Knights, bishops, rooks, queens: pinned pieces may only slide along their pin line.
+        long targetMask = ~own & checkMask & kindMask;
+        long pieces = own & ~kingBit & ~board.getBitboard(PieceConstants.PAWN | us) & fromMask;
+        while (pieces != 0) {
+            int fromIndex = Long.numberOfTrailingZeros(pieces);
+            long targets = pieceAttacks(board.getPiece(fromIndex) & 7, fromIndex, occupancy) & targetMask;
+            if (((pinned >>> fromIndex) & 1) != 0) {
+                targets &= Bitboards.line(kingIndex, fromIndex);
+            }
+            moves.addTargets(fromIndex, targets, enemy);
+            pieces &= pieces - 1;
+        }
+
+        // 5) Pawns
+        generatePawnMoves(board, isWhite, kingIndex, pinned, checkMask, checkers, occupancy, enemy,
+                enemyDiagonal, enemyStraight, kind, fromMask, moves);
+    }
+
+    private static void generatePawnMoves(Board board, boolean isWhite, int kingIndex, long pinned, long checkMask,
+                                          long checkers, long occupancy, long enemy, long enemyDiagonal,
+                                          long enemyStraight, int kind, long fromMask, MoveList moves) {
+        int direction = isWhite ? 8 : -8;
+        int startRank = isWhite ? 1 : 6;
+        int promotionRank = isWhite ? 7 : 0;
+        int enPassantSquare = board.getEnPassantSquare();
+        long pawns = board.getBitboard(PieceConstants.PAWN | (isWhite ? PieceConstants.WHITE : PieceConstants.BLACK))
+                & fromMask;
+        boolean noisy = (kind & NOISY) != 0;
+        boolean quiet = (kind & QUIET) != 0;
+
+        while (pawns != 0) {
+            int fromIndex = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long allowed = checkMask;
+            if (((pinned >>> fromIndex) & 1) != 0) {
+                allowed &= Bitboards.line(kingIndex, fromIndex);
+            }
+
+            // Pushes (promoting pushes count as noisy)
+            int oneStep = fromIndex + direction;
+            if (((occupancy >>> oneStep) & 1) == 0) {
+                boolean promotes = oneStep / 8 == promotionRank;
+                if (((allowed >>> oneStep) & 1) != 0 && (promotes ? noisy : quiet)) {
+                    addPawnMove(moves, fromIndex, oneStep, false, promotionRank);
+                }
+                int twoSteps = oneStep + direction;
+                if (quiet && fromIndex / 8 == startRank && ((occupancy >>> twoSteps) & 1) == 0
+                        && ((allowed >>> twoSteps) & 1) != 0) {
+                    moves.add(Move.encode(fromIndex, twoSteps, Move.DOUBLE_PAWN_PUSH));
+                }
+            }
+            if (!noisy) continue;
+
+            // Captures
+            long attacks = Bitboards.pawnAttacks(fromIndex, isWhite);
+            long captures = attacks & enemy & allowed;
+            while (captures != 0) {
+                addPawnMove(moves, fromIndex, Long.numberOfTrailingZeros(captures), true, promotionRank);
+                captures &= captures - 1;
+            }
+
+            // En passant: the captured pawn may be the checker, and removing two pawns from one
+            // rank can uncover a slider on the king (the classic horizontal en passant pin).
+            if (enPassantSquare >= 0 && ((attacks >>> enPassantSquare) & 1) != 0) {
+                int capturedIndex = enPassantSquare - direction;
+                long capturedBit = 1L << capturedIndex;
+                boolean resolvesCheck = ((checkMask >>> enPassantSquare) & 1) != 0 || (checkers & capturedBit) != 0;
+                if (!resolvesCheck) continue;
+                long after = (occupancy ^ (1L << fromIndex) ^ capturedBit) | (1L << enPassantSquare);
+                if ((Bitboards.rookAttacks(kingIndex, after) & enemyStraight) == 0
+                        && (Bitboards.bishopAttacks(kingIndex, after) & enemyDiagonal) == 0) {
+                    moves.add(Move.encode(fromIndex, enPassantSquare, Move.EN_PASSANT));
+                }
+            }
+        }
+    }
+
+    private static void generateCastling(Board board, boolean isWhite, int kingIndex, long occupancy, long danger,
+                                         MoveList moves) {
+        int homeIndex = isWhite ? 4 : 60;
+        if (kingIndex != homeIndex || board.hasKingMoved(isWhite)) return;
+        int ownRook = PieceConstants.ROOK | (isWhite ? PieceConstants.WHITE : PieceConstants.BLACK);
+
+        // Kingside: f and g files empty and not attacked.
+        long kingSidePath = 3L << (homeIndex + 1);
+        if (!board.hasRookMoved(homeIndex + 3) && board.getPiece(homeIndex + 3) == ownRook
+                && (occupancy & kingSidePath) == 0 && (danger & kingSidePath) == 0) {
+            moves.add(Move.encode(homeIndex, homeIndex + 2, Move.KING_CASTLE));
+        }
+        // Queenside: b, c and d files empty; only c and d (the king's path) must be safe.
+        long queenSidePath = 7L << (homeIndex - 3);
+        long queenSideKingPath = 3L << (homeIndex - 2);
+        if (!board.hasRookMoved(homeIndex - 4) && board.getPiece(homeIndex - 4) == ownRook
+                && (occupancy & queenSidePath) == 0 && (danger & queenSideKingPath) == 0) {
+            moves.add(Move.encode(homeIndex, homeIndex - 2, Move.QUEEN_CASTLE));
+        }
+    }
+
+    private static void addPawnMove(MoveList moves, int fromIndex, int toIndex, boolean isCapture, int promotionRank) {
+        if (toIndex / 8 == promotionRank) {
+            for (int promotionType : PROMOTION_TYPES) {
+                moves.add(Move.encodePromotion(fromIndex, toIndex, promotionType, isCapture));
+            }
+        } else {
+            moves.add(Move.encode(fromIndex, toIndex, isCapture ? Move.CAPTURE : Move.QUIET));
+        }
+    }
+
+    private static long pieceAttacks(int type, int index, long occupancy) {
+        return switch (type) {
+            case PieceConstants.KNIGHT -> Bitboards.knightAttacks(index);
+            case PieceConstants.BISHOP -> Bitboards.bishopAttacks(index, occupancy);
+            case PieceConstants.ROOK -> Bitboards.rookAttacks(index, occupancy);
+            case PieceConstants.QUEEN -> Bitboards.queenAttacks(index, occupancy);
+            default -> 0L;
+        };
+    }
+}
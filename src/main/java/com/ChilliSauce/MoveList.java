@@ -0,0 +1,72 @@
+package com.ChilliSauce;
+
+/**
+ * Reusable, int[]-backed list of packed {@link Move}s. Callers own the list and
+ * {@link #clear()} it between uses, so generating moves does not allocate.
+ */
+public final class MoveList {
+    // No legal chess position has more than 218 moves.
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * Adds one move from {@code fromIndex} to every square in {@code targets},
+     * flagging those that land on a piece in {@code enemies} as captures.
+     */
+    public void addTargets(int fromIndex, long targets, long enemies) {
+        while (targets != 0) {
+            int toIndex = Long.numberOfTrailingZeros(targets);
+            boolean isCapture = ((enemies >>> toIndex) & 1) != 0;
+            moves[size++] = Move.encode(fromIndex, toIndex, isCapture ? Move.CAPTURE : Move.QUIET);
+            targets &= targets - 1;
+        }
+    }
+
+    public int get(int i) {
+        return moves[i];
+    }
+
+    public void set(int i, int move) {
+        moves[i] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from index {@code newSize} onward.
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,289 @@
+package com.ChilliSauce;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Headless perft (performance test) runner: counts leaf nodes of the legal move tree to a
+ * fixed depth. Used both to verify move generation against known counts and to measure its
+ * speed. Runs without any Swing classes.
+ *
+ * <pre>
+ *   Perft [options] --suite                 run the reference positions below
+ *   Perft [options] &lt;depth&gt;                 divide from the start position
+ *   Perft [options] "&lt;fen&gt;" &lt;depth&gt;         divide from any position
+ *
+ *   --threads N    split the tree over N fork-join workers (default 1)
+ *   --hash MB      share a perft hash table of MB megabytes between workers
+ * </pre>
+ */
+public final class Perft {
+
+    /**
+     * A reference position with its published node count.
+     */
+    public record TestPosition(String name, String fen, int depth, long expectedNodes) {
+    }
+
+    // Standard positions from the chess programming community, with well-known counts.
+    public static final TestPosition[] REFERENCE_POSITIONS = {
+            new TestPosition("start position",
+                    "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", 5, 4_865_609L),
+            new TestPosition("kiwipete",
+                    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 4, 4_085_603L),
+            new TestPosition("position 3 (en passant, pins)",
+                    "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 6, 11_030_083L),
+            new TestPosition("position 4 (promotions, castling)",
+                    "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 5, 15_833_292L),
+            new TestPosition("position 4 mirrored",
+                    "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1", 5, 15_833_292L),
+            new TestPosition("position 5",
+                    "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 4, 2_103_487L),
+            new TestPosition("position 6",
+                    "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", 4, 3_894_594L),
+    };
+
+    // One preallocated move list per remaining depth, so counting never allocates.
+    private final MoveList[] moveLists;
+    private final PerftHashTable hashTable; // may be null
+
+    public Perft(int maxDepth) {
+        this(maxDepth, null);
+    }
+
+    public Perft(int maxDepth, PerftHashTable hashTable) {
+        this.hashTable = hashTable;
+        moveLists = new MoveList[maxDepth + 1];
+        for (int i = 0; i <= maxDepth; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Counts the leaf nodes {@code depth} plies below the current position (bulk-counting the last ply).
+     */
+    public long count(Board board, int depth) {
+        if (depth == 0) return 1;
+        MoveList moves = moveLists[depth];
+        moves.clear();
+        board.generateLegalMoves(moves);
+        if (depth == 1) return moves.size();
+
+        if (hashTable != null) {
+            long cached = hashTable.probe(board.getZobristKey(), depth);
+            if (cached >= 0) return cached;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += count(board, depth - 1);
+            board.unmakeMove();
+        }
+
+        if (hashTable != null) {
+            hashTable.store(board.getZobristKey(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    // ---------------------------------------------------------
+    // Parallel perft
+    // ---------------------------------------------------------
+    /**
+     * Counts the same leaves as {@link #count} using a fork-join pool of {@code threads} workers.
+     * The top plies are split into one task per move, each on its own Board copy, and the
+     * subtree counts are summed exactly. {@code hashTable} may be null.
+     */
+    public static long countParallel(Board board, int depth, int threads, PerftHashTable hashTable) {
+        if (depth <= 1) return new Perft(depth).count(board, depth);
+        try (ForkJoinPool pool = new ForkJoinPool(threads)) {
+            return pool.invoke(new PerftTask(new Board(board), depth, splitPlies(depth), hashTable));
+        }
+    }
+
+    // Two split plies give a few hundred tasks from a typical root, enough to keep 32+ workers busy.
+    private static int splitPlies(int depth) {
+        return Math.min(2, depth - 2);
+    }
+
+    /**
+     * Counts the nodes below one position. While {@code splitPlies} remain, forks one subtask per
+     * legal move (each on its own Board copy); below that it counts sequentially.
+     */
+    private static final class PerftTask extends RecursiveTask<Long> {
+        private final Board board;
+        private final int depth;
+        private final int splitPlies;
+        private final PerftHashTable hashTable;
+
+        PerftTask(Board board, int depth, int splitPlies, PerftHashTable hashTable) {
+            this.board = board;
+            this.depth = depth;
+            this.splitPlies = splitPlies;
+            this.hashTable = hashTable;
+        }
+
+        @Override
+        protected Long compute() {
+            if (splitPlies <= 0 || depth <= 2) {
+                return new Perft(depth, hashTable).count(board, depth);
+            }
+            List<PerftTask> subtasks = forkChildren(board, depth, splitPlies - 1, hashTable);
+            long nodes = 0;
+            for (PerftTask subtask : subtasks) {
+                nodes += subtask.join();
+            }
+            return nodes;
+        }
+    }
+
+    private static List<PerftTask> forkChildren(Board board, int depth, int splitPlies, PerftHashTable hashTable) {
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+        List<PerftTask> subtasks = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            Board child = new Board(board);
+            child.makeMove(moves.get(i));
+            PerftTask subtask = new PerftTask(child, depth - 1, splitPlies, hashTable);
+            subtask.fork();
+            subtasks.add(subtask);
+        }
+        return subtasks;
+    }
+
+    /**
+     * Parallel version of {@link #divide}: root moves run concurrently, output stays in move order.
+     */
+    public static long divideParallel(Board board, int depth, int threads, PerftHashTable hashTable) {
+        long start = System.nanoTime();
+        MoveList rootMoves = new MoveList();
+        board.generateLegalMoves(rootMoves);
+
+        long total = 0;
+        try (ForkJoinPool pool = new ForkJoinPool(threads)) {
+            List<PerftTask> subtasks = pool.submit(() -> forkChildren(board, depth, splitPlies(depth) - 1, hashTable)).join();
+            for (int i = 0; i < subtasks.size(); i++) {
+                long nodes = subtasks.get(i).join();
+                System.out.println(Move.toUci(rootMoves.get(i)) + ": " + nodes);
+                total += nodes;
+            }
+        }
+        printSummary(total, System.nanoTime() - start);
+        return total;
+    }
+
+    /**
+     * Prints the node count below each root move ("divide"), then the total and speed.
+     */
+    public long divide(Board board, int depth) {
+        long start = System.nanoTime();
+        MoveList rootMoves = new MoveList();
+        board.generateLegalMoves(rootMoves);
+
+        long total = 0;
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            board.makeMove(move);
+            long nodes = count(board, depth - 1);
+            board.unmakeMove();
+            System.out.println(Move.toUci(move) + ": " + nodes);
+            total += nodes;
+        }
+        printSummary(total, System.nanoTime() - start);
+        return total;
+    }
+
+    /**
+     * Runs every reference position; returns true if all node counts match.
+     */
+    public static boolean runSuite() {
+        return runSuite(1, null);
+    }
+
+    /**
+     * Runs every reference position with the given worker count and optional shared hash table.
+     */
+    public static boolean runSuite(int threads, PerftHashTable hashTable) {
+        boolean allPassed = true;
+        long totalNodes = 0;
+        long totalTime = 0;
+        for (TestPosition position : REFERENCE_POSITIONS) {
+            Board board = new Board(position.fen());
+            long start = System.nanoTime();
+            long nodes = threads > 1
+                    ? countParallel(board, position.depth(), threads, hashTable)
+                    : new Perft(position.depth(), hashTable).count(board, position.depth());
+            long elapsed = System.nanoTime() - start;
+            totalNodes += nodes;
+            totalTime += elapsed;
+
+            boolean passed = nodes == position.expectedNodes();
+            allPassed &= passed;
+            System.out.printf("%s  %-34s depth %d  nodes %,14d  expected %,14d  %,12d nps%n",
+                    passed ? "PASS" : "FAIL", position.name(), position.depth(), nodes,
+                    position.expectedNodes(), nodesPerSecond(nodes, elapsed));
+        }
+        printSummary(totalNodes, totalTime);
+        return allPassed;
+    }
+
+    private static void printSummary(long nodes, long elapsedNanos) {
+        System.out.printf("Nodes: %,d  Time: %,d ms  NPS: %,d%n",
+                nodes, elapsedNanos / 1_000_000, nodesPerSecond(nodes, elapsedNanos));
+    }
+
+    private static long nodesPerSecond(long nodes, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    public static void main(String[] args) {
+        try {
+            int threads = 1;
+            PerftHashTable hashTable = null;
+            int next = 0;
+            while (next < args.length && args[next].startsWith("--") && !args[next].equals("--suite")) {
+                switch (args[next]) {
+                    case "--threads" -> threads = Integer.parseInt(args[next + 1]);
+                    case "--hash" -> {
+                        int megabytes = Integer.parseInt(args[next + 1]);
+                        if (megabytes < 1) {
+                            throw new IllegalArgumentException("Hash size must be at least 1 MB");
+                        }
+                        hashTable = new PerftHashTable(megabytes);
+                    }
+                    default -> throw new IllegalArgumentException("Unknown option " + args[next]);
+                }
+                next += 2;
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("Thread count must be at least 1");
+            }
+
+            int remaining = args.length - next;
+            if (remaining == 0 || args[next].equals("--suite")) {
+                if (!runSuite(threads, hashTable)) {
+                    System.exit(1);
+                }
+                return;
+            }
+
+            String fen = remaining >= 2 ? args[next] : Board.startFEN;
+            int depth = Integer.parseInt(args[args.length - 1]);
+            if (depth < 1) {
+                throw new IllegalArgumentException("Depth must be at least 1");
+            }
+            if (threads > 1) {
+                divideParallel(new Board(fen), depth, threads, hashTable);
+            } else {
+                new Perft(depth, hashTable).divide(new Board(fen), depth);
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Usage: Perft [--threads N] [--hash MB] (--suite | <depth> | \"<fen>\" <depth>)");
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ChilliSauce;
+
+/**
+ * Fixed-size, lock-free cache of perft subtree counts, shared by all perft threads.
+ * Each entry is two longs: {@code key ^ data} and {@code data}, where data packs the node
+ * count with the depth. A reader only trusts an entry whose two halves XOR back to its own
+ * key, so a slot torn by two threads writing at once reads as a miss instead of a wrong count.
+ */
+public final class PerftHashTable {
+    private static final int DEPTH_BITS = 8;
+
+    private final long[] entries;
+    private final int indexMask;
+
+    public PerftHashTable(int megabytes) {
+        long slots = Math.max(1L, (long) megabytes * 1024 * 1024 / 16);
+        // At most 2^29 slots (8 GiB), so the two longs per slot still fit in one array.
+        int size = Integer.highestOneBit((int) Math.min(slots, 1 << 29));
+        entries = new long[size * 2];
+        indexMask = size - 1;
+    }
+
+    /**
+     * Returns the cached node count for this position and depth, or -1 on a miss.
+     */
+    public long probe(long key, int depth) {
+        int slot = ((int) key & indexMask) << 1;
+        long data = entries[slot + 1];
+        if ((entries[slot] ^ data) != key || (int) (data & ((1 << DEPTH_BITS) - 1)) != depth) {
+            return -1;
+        }
+        return data >>> DEPTH_BITS;
+    }
+
+    public void store(long key, int depth, long nodes) {
+        int slot = ((int) key & indexMask) << 1;
+        long data = (nodes << DEPTH_BITS) | depth;
+        entries[slot] = key ^ data;
+        entries[slot + 1] = data;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ChilliSauce;
+
+/**
+ * Receives every single piece change on a {@link Board}, including those made and undone by the
+ * search, so state kept outside the board (e.g. a neural network accumulator) can be updated
+ * incrementally. A move is reported as its removals and additions; a capture replaces a piece
+ * and reports both.
+ */
+public interface PieceListener {
+
+    /**
+     * Called after {@code piece} (type | color) has been taken off {@code square}.
+     */
+    void pieceRemoved(int piece, int square);
+
+    /**
+     * Called after {@code piece} (type | color) has been put on {@code square}.
+     */
+    void pieceAdded(int piece, int square);
+}
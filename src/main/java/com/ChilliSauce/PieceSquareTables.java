@@ -0,0 +1,135 @@
+package com.ChilliSauce;
+
+/**
+ * Material plus piece-square values for the midgame and the endgame, in centipawns from
+ * white's point of view (black entries are mirrored and negated). {@link Board} adds and
+ * subtracts these as pieces change, so the base evaluation is always up to date.
+ */
+public final class PieceSquareTables {
+    // Game phase: 24 with all minor and major pieces on the board, 0 with only kings and pawns.
+    public static final int MAX_PHASE = 24;
+
+    // Indexed by bare piece type (KING .. PAWN).
+    private static final int[] MIDGAME_VALUES = {0, 0, 1025, 477, 337, 365, 82};
+    private static final int[] ENDGAME_VALUES = {0, 0, 936, 512, 281, 297, 94};
+    private static final int[] PHASE_WEIGHTS = {0, 0, 4, 2, 1, 1, 0};
+
+    // Tables below are written as seen from white's side: first row is rank 8, last row rank 1.
+    private static final int[] PAWN_MG = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0
+    };
+    private static final int[] PAWN_EG = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             80,  80,  80,  80,  80,  80,  80,  80,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             30,  30,  30,  30,  30,  30,  30,  30,
+             20,  20,  20,  20,  20,  20,  20,  20,
+             10,  10,  10,  10,  10,  10,  10,  10,
+             10,  10,  10,  10,  10,  10,  10,  10,
+              0,   0,   0,   0,   0,   0,   0,   0
+    };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] ROOK = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0
+    };
+    private static final int[] QUEEN = {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20
+    };
+    private static final int[] KING_MG = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20
+    };
+    private static final int[] KING_EG = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    // Indexed by piece code (type | color) and square; signed from white's point of view.
+    static final int[][] MIDGAME = new int[32][64];
+    static final int[][] ENDGAME = new int[32][64];
+    static final int[] PHASE = new int[32];
+
+    static {
+        int[][] midgameTables = {null, KING_MG, QUEEN, ROOK, KNIGHT, BISHOP, PAWN_MG};
+        int[][] endgameTables = {null, KING_EG, QUEEN, ROOK, KNIGHT, BISHOP, PAWN_EG};
+        for (int type = PieceConstants.KING; type <= PieceConstants.PAWN; type++) {
+            for (int square = 0; square < 64; square++) {
+                // White reads the table upside down (a1 is the first entry of the last row); black reads it as written.
+                int whiteEntry = square ^ 56;
+                MIDGAME[type | PieceConstants.WHITE][square] = MIDGAME_VALUES[type] + midgameTables[type][whiteEntry];
+                ENDGAME[type | PieceConstants.WHITE][square] = ENDGAME_VALUES[type] + endgameTables[type][whiteEntry];
+                MIDGAME[type | PieceConstants.BLACK][square] = -(MIDGAME_VALUES[type] + midgameTables[type][square]);
+                ENDGAME[type | PieceConstants.BLACK][square] = -(ENDGAME_VALUES[type] + endgameTables[type][square]);
+            }
+            PHASE[type | PieceConstants.WHITE] = PHASE_WEIGHTS[type];
+            PHASE[type | PieceConstants.BLACK] = PHASE_WEIGHTS[type];
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    public static int midgame(int piece, int square) {
+        return MIDGAME[piece][square];
+    }
+
+    public static int endgame(int piece, int square) {
+        return ENDGAME[piece][square];
+    }
+
+    public static int phase(int piece) {
+        return PHASE[piece];
+    }
+}
@@ -37,4 +37,21 @@ public class SoundManager {
     public static void playPromotionSound() {
         playSound("src/main/resources/sounds/promote.wav");
     }
+
+    /**
+     * Returns a listener that plays the matching sound for every move played on a board.
+     */
+    public static BoardListener boardListener() {
+        return (_, move, capturedPiece) -> {
+            if (Move.isCastling(move)) {
+                playCastlingSound();
+            } else if (Move.isPromotion(move)) {
+                playPromotionSound();
+            } else if (capturedPiece != PieceConstants.NONE) {
+                playCaptureSound();
+            } else {
+                playMoveSound();
+            }
+        };
+    }
 }
@@ -1,84 +1,57 @@
 package com.ChilliSauce;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class ValidPawnMoves {
-    public static List<Integer> getValidMoves(Board board, int index, boolean isWhite) {
-        List<Integer> validMoves = new ArrayList<>();
+    private static final int[] PROMOTION_TYPES = {
+            PieceConstants.QUEEN, PieceConstants.ROOK, PieceConstants.BISHOP, PieceConstants.KNIGHT
+    };
 
+    public static void generateMoves(Board board, int index, boolean isWhite, MoveList moves) {
         int direction = isWhite ? 8 : -8;  // White moves up (+8), Black moves down (-8)
         int startRank = isWhite ? 1 : 6;     // White starts at rank 1, Black at rank 6
         int promotionRank = isWhite ? 7 : 0;   // White promotes at rank 7, Black at rank 0
+        long occupancy = board.getOccupancy();
 
         // 1️⃣ Normal Move (Single Step)
         int oneStep = index + direction;
-        if (oneStep >= 0 && oneStep < 64 && board.getPiece(oneStep) == PieceConstants.NONE) {
-            validMoves.add(oneStep);
+        if (oneStep >= 0 && oneStep < 64 && ((occupancy >>> oneStep) & 1) == 0) {
+            addPawnMove(moves, index, oneStep, false, promotionRank);
 
             // 2️⃣ First Move (Two Steps) - Only if first step is empty
             if ((index / 8) == startRank) {  // Check if pawn is at its starting rank
                 int twoSteps = index + (2 * direction);
-                if (board.getPiece(twoSteps) == PieceConstants.NONE) {
-                    validMoves.add(twoSteps);
-                }
-            }
-        }
-
-        // 3️⃣ Capturing Moves (Diagonal Left & Right)
-        int[] captureOffsets = {7, 9};
-        for (int offset : captureOffsets) {
-            int target = index + (isWhite ? offset : -offset);
-
-            if (target >= 0 && target < 64) {
-                int prevFile = index % 8;   // File before move
-                int currFile = target % 8;    // File after move
-                if (Math.abs(currFile - prevFile) == 1) { // Ensure diagonal movement
-                    int targetPiece = board.getPiece(target);
-
-                    // Capture only opponent pieces
-                    boolean isTargetWhite = (targetPiece & PieceConstants.WHITE) != 0;
-                    boolean isTargetBlack = (targetPiece & PieceConstants.BLACK) != 0;
-                    if ((isWhite && isTargetBlack) || (!isWhite && isTargetWhite)) {
-                        validMoves.add(target);
-                    }
+                if (((occupancy >>> twoSteps) & 1) == 0) {
+                    moves.add(Move.encode(index, twoSteps, Move.DOUBLE_PAWN_PUSH));
                 }
             }
         }
 
-        // 4️⃣ En Passant Capture
-        Integer enPassantTarget = board.getEnPassantTarget();
-        if (enPassantTarget != null) {
-            int leftCapture = index + (isWhite ? 7 : -9);
-            int rightCapture = index + (isWhite ? 9 : -7);
-            if (leftCapture == enPassantTarget || rightCapture == enPassantTarget) {
-                validMoves.add(enPassantTarget);
-            }
+        // 3️⃣ Capturing Moves (Diagonal Left & Right) - capture only opponent pieces
+        long attacks = getAttacks(board, index, isWhite);
+        long captures = attacks & board.getOccupancy(!isWhite);
+        while (captures != 0) {
+            addPawnMove(moves, index, Long.numberOfTrailingZeros(captures), true, promotionRank);
+            captures &= captures - 1;
         }
 
-        // 5️⃣ Handle Promotion (Informational)
-        if ((oneStep / 8) == promotionRank) {
-            System.out.println("♛ Pawn promotion possible at index: " + oneStep);
+        // 4️⃣ En Passant Capture (must be one of this pawn's diagonals, never wrapping a file)
+        int enPassantSquare = board.getEnPassantSquare();
+        if (enPassantSquare >= 0 && ((attacks >>> enPassantSquare) & 1) != 0) {
+            moves.add(Move.encode(index, enPassantSquare, Move.EN_PASSANT));
         }
-
-        return validMoves;
     }
 
-    // New method: returns the squares a pawn attacks (diagonally ahead) regardless of occupancy.
-    public static List<Integer> getAttackSquares(Board ignoredBoard, int index, boolean isWhite) {
-        List<Integer> attackSquares = new ArrayList<>();
-        int[] captureOffsets = {7, 9};
-        for (int offset : captureOffsets) {
-            int target = index + (isWhite ? offset : -offset);
-            if (target >= 0 && target < 64) {
-                int prevFile = index % 8;
-                int currFile = target % 8;
-                // Only add if the move is a valid diagonal (i.e., it doesn't wrap around the board)
-                if (Math.abs(currFile - prevFile) == 1) {
-                    attackSquares.add(target);
-                }
+    private static void addPawnMove(MoveList moves, int fromIndex, int toIndex, boolean isCapture, int promotionRank) {
+        if ((toIndex / 8) == promotionRank) {
+            for (int promotionType : PROMOTION_TYPES) {
+                moves.add(Move.encodePromotion(fromIndex, toIndex, promotionType, isCapture));
             }
+        } else {
+            moves.add(Move.encode(fromIndex, toIndex, isCapture ? Move.CAPTURE : Move.QUIET));
         }
-        return attackSquares;
+    }
+
+    // Returns the squares a pawn attacks (diagonally ahead) regardless of occupancy, as a bitboard.
+    public static long getAttacks(Board ignoredBoard, int index, boolean isWhite) {
+        return Bitboards.pawnAttacks(index, isWhite);
     }
 }
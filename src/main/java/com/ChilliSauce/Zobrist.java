@@ -0,0 +1,40 @@
+package com.ChilliSauce;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of one key per
+ * (piece, square), one for the castling rights, one for the en passant file (only when a pawn
+ * can capture there) and one when black is to move, so {@link Board} can update it
+ * incrementally as pieces change.
+ */
+public final class Zobrist {
+    // Indexed by piece code (type | color) and square.
+    static final long[][] PIECE_KEYS = new long[32][64];
+    // Indexed by the available castling rights (K = 1, Q = 2, k = 4, q = 8).
+    static final long[] CASTLING_KEYS = new long[16];
+    static final long[] EN_PASSANT_KEYS = new long[8];
+    static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        // Fixed seed: keys are identical on every run, so hashes can be compared or stored.
+        SplittableRandom random = new SplittableRandom(0x43686573734B6579L);
+        for (int color : new int[]{PieceConstants.WHITE, PieceConstants.BLACK}) {
+            for (int type = PieceConstants.KING; type <= PieceConstants.PAWN; type++) {
+                for (int square = 0; square < 64; square++) {
+                    PIECE_KEYS[type | color][square] = random.nextLong();
+                }
+            }
+        }
+        for (int rights = 0; rights < 16; rights++) {
+            CASTLING_KEYS[rights] = random.nextLong();
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_KEYS[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+}
@@ -0,0 +1,443 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Bitboards;
+import com.ChilliSauce.Board;
+import com.ChilliSauce.PieceConstants;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Exact win/draw/loss tables for KPK, KRK, KQK and KBNK, built by retrograde analysis instead of
+ * being shipped as tablebase files. The first start generates them on all cores (a few seconds)
+ * and writes them to a cache file ({@code -Dchess.bitbases.file}, by default
+ * {@code ~/.chillisauce/bitbases-v1.bin}); later starts memory-map that file. A probe is O(1).
+ * <p>
+ * Positions are indexed from the strong side's point of view (strong king, weak king, then the
+ * strong pieces, 6 bits per square in Board's a1 = 0 numbering); a black strong side is mirrored
+ * vertically. Each position takes 2 bits per side to move: draw, win or loss for that side.
+ * The tables ignore castling rights and the fifty-move rule.
+ */
+public final class Bitbases {
+    // Probe results, for the side to move.
+    public static final int LOSS = -1;
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+    public static final int UNKNOWN = 2; // Not a covered endgame.
+
+    private static final int KPK = 0;
+    private static final int KRK = 1;
+    private static final int KQK = 2;
+    private static final int KBNK = 3;
+    // The strong side's pieces besides its king, in index order.
+    private static final int[][] PIECES = {
+            {PieceConstants.PAWN}, {PieceConstants.ROOK}, {PieceConstants.QUEEN},
+            {PieceConstants.BISHOP, PieceConstants.KNIGHT}};
+
+    private static final long MAGIC = 0x4353424954425331L; // "CSBITBS1"
+    private static final int HEADER_BYTES = 8;
+    // Packed 2-bit values.
+    private static final int PACKED_WIN = 1;
+    private static final int PACKED_LOSS = 2;
+
+    private static final int[] TABLE_OFFSETS = new int[PIECES.length + 1];
+
+    static {
+        for (int table = 0; table < PIECES.length; table++) {
+            TABLE_OFFSETS[table + 1] = TABLE_OFFSETS[table] + packedBytes(table);
+        }
+    }
+
+    private static CompletableFuture<Bitbases> loading;
+
+    private final ByteBuffer data;
+
+    private Bitbases(ByteBuffer data) {
+        this.data = data;
+    }
+
+    // ---------------------------------------------------------
+    // Loading
+    // ---------------------------------------------------------
+    /**
+     * Starts loading (or, on the first run, generating) the tables on a background thread.
+     */
+    public static synchronized CompletableFuture<Bitbases> loadAsync() {
+        if (loading == null) {
+            CompletableFuture<Bitbases> future = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    future.complete(load(cacheFile()));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }, "bitbase-loader");
+            thread.setDaemon(true);
+            thread.start();
+            loading = future;
+        }
+        return loading;
+    }
+
+    /**
+     * The tables, waiting for them to be loaded or generated if necessary.
+     */
+    public static Bitbases get() {
+        return loadAsync().join();
+    }
+
+    /**
+     * The tables if they are ready, otherwise null (never blocks, e.g. inside a search).
+     */
+    public static Bitbases getIfLoaded() {
+        CompletableFuture<Bitbases> future;
+        synchronized (Bitbases.class) {
+            future = loading;
+        }
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    private static Path cacheFile() {
+        String file = System.getProperty("chess.bitbases.file");
+        return file != null ? Path.of(file)
+                : Path.of(System.getProperty("user.home"), ".chillisauce", "bitbases-v1.bin");
+    }
+
+    private static Bitbases load(Path file) throws IOException {
+        long expectedSize = HEADER_BYTES + TABLE_OFFSETS[PIECES.length];
+        if (Files.isRegularFile(file) && Files.size(file) == expectedSize) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, expectedSize);
+                if (data.getLong(0) == MAGIC) return new Bitbases(data);
+            }
+        }
+
+        ByteBuffer data = ByteBuffer.wrap(generateAll());
+        try {
+            // Written next to the target and renamed, so a crash never leaves a half-written cache.
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), "bitbases", ".tmp");
+            Files.write(temporary, data.array());
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not cache bitbases in " + file + ": " + e.getMessage());
+        }
+        return new Bitbases(data);
+    }
+
+    // ---------------------------------------------------------
+    // Probing
+    // ---------------------------------------------------------
+    /**
+     * Win, draw or loss for the side to move with perfect play, or {@link #UNKNOWN} when the
+     * position is not one of the covered endgames. Bare kings and a lone minor piece are draws.
+     */
+    public int probe(Board board) {
+        long occupancy = board.getOccupancy();
+        int pieceCount = Long.bitCount(occupancy);
+        if (pieceCount > 4) return UNKNOWN;
+
+        long whiteKing = board.getBitboard(PieceConstants.KING | PieceConstants.WHITE);
+        long blackKing = board.getBitboard(PieceConstants.KING | PieceConstants.BLACK);
+        long whitePieces = board.getOccupancy(true) & ~whiteKing;
+        long blackPieces = board.getOccupancy(false) & ~blackKing;
+        if (whitePieces != 0 && blackPieces != 0) return UNKNOWN;
+        boolean strongIsWhite = whitePieces != 0;
+        long pieces = strongIsWhite ? whitePieces : blackPieces;
+        if (pieces == 0) return DRAW;
+        if (hasCastlingRights(board)) return UNKNOWN;
+
+        int first = Long.numberOfTrailingZeros(pieces);
+        int firstType = board.getPiece(first) & 7;
+        int table;
+        int piece1;
+        int piece2 = 0;
+        if (pieceCount == 3) {
+            table = switch (firstType) {
+                case PieceConstants.PAWN -> KPK;
+                case PieceConstants.ROOK -> KRK;
+                case PieceConstants.QUEEN -> KQK;
+                default -> -1; // A lone bishop or knight cannot mate.
+            };
+            if (table < 0) return DRAW;
+            piece1 = first;
+        } else {
+            int second = Long.numberOfTrailingZeros(pieces & (pieces - 1));
+            int secondType = board.getPiece(second) & 7;
+            if (firstType == PieceConstants.BISHOP && secondType == PieceConstants.KNIGHT) {
+                piece1 = first;
+                piece2 = second;
+            } else if (firstType == PieceConstants.KNIGHT && secondType == PieceConstants.BISHOP) {
+                piece1 = second;
+                piece2 = first;
+            } else {
+                return UNKNOWN;
+            }
+            table = KBNK;
+        }
+
+        // Mirror so the strong side is always white.
+        int flip = strongIsWhite ? 0 : 56;
+        int strongKing = Long.numberOfTrailingZeros(strongIsWhite ? whiteKing : blackKing) ^ flip;
+        int weakKing = Long.numberOfTrailingZeros(strongIsWhite ? blackKing : whiteKing) ^ flip;
+        int index = (strongKing << 6 | weakKing) << 6 | (piece1 ^ flip);
+        if (table == KBNK) index = index << 6 | (piece2 ^ flip);
+
+        boolean strongToMove = board.isWhiteTurn() == strongIsWhite;
+        long entry = (strongToMove ? 0L : tableSize(table)) + index;
+        int packed = data.get(HEADER_BYTES + TABLE_OFFSETS[table] + (int) (entry >>> 2)) >>> ((entry & 3) * 2) & 3;
+        return packed == PACKED_WIN ? WIN : packed == PACKED_LOSS ? LOSS : DRAW;
+    }
+
+    private static boolean hasCastlingRights(Board board) {
+        return (!board.hasKingMoved(true) && (!board.hasRookMoved(0) || !board.hasRookMoved(7)))
+                || (!board.hasKingMoved(false) && (!board.hasRookMoved(56) || !board.hasRookMoved(63)));
+    }
+
+    private static int tableSize(int table) {
+        return 1 << (6 * (2 + PIECES[table].length));
+    }
+
+    // Both sides to move, 4 positions per byte.
+    private static int packedBytes(int table) {
+        return 2 * tableSize(table) / 4;
+    }
+
+    // ---------------------------------------------------------
+    // Retrograde generation
+    // ---------------------------------------------------------
+    private static byte[] generateAll() {
+        byte[] data = new byte[HEADER_BYTES + TABLE_OFFSETS[PIECES.length]];
+        ByteBuffer.wrap(data).putLong(0, MAGIC);
+        Generator[] generators = new Generator[PIECES.length];
+        // KPK needs KQK and KRK to score promotions.
+        for (int table : new int[]{KQK, KRK, KPK, KBNK}) {
+            generators[table] = new Generator(PIECES[table]);
+            generators[table].solve(generators);
+            generators[table].pack(data, HEADER_BYTES + TABLE_OFFSETS[table]);
+        }
+        return data;
+    }
+
+    /**
+     * Solves one endgame. "Strong" positions have the strong side to move and are won or not;
+     * "weak" positions have the lone king to move and hold a count of moves not yet known to
+     * lose, so a weak position is lost exactly when its count reaches zero. Each round turns the
+     * newly lost weak positions into won strong predecessors (un-moves of the strong side), then
+     * counts those wins down in their weak predecessors (un-moves of the lone king), until nothing
+     * changes. Rounds run in parallel over bitsets of the newly decided positions.
+     */
+    private static final class Generator {
+        private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+        private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+        private static final byte ILLEGAL = -1;
+        private static final byte UNDECIDED = 0;
+        private static final byte WON = 1;
+        // Weak count for positions that can never be lost (a capture or stalemate is available).
+        private static final byte SAFE = 100;
+
+        private final int piece1;
+        private final int piece2; // NONE for three-piece endgames
+        private final int shift; // bits below the weak king's square
+        private final int size;
+        private final byte[] strong;
+        private final byte[] weak;
+
+        Generator(int[] pieces) {
+            piece1 = pieces[0];
+            piece2 = pieces.length > 1 ? pieces[1] : PieceConstants.NONE;
+            shift = 6 * pieces.length;
+            size = 1 << (12 + shift);
+            strong = new byte[size];
+            weak = new byte[size];
+        }
+
+        void solve(Generator[] solved) {
+            long[] initiallyWon = new long[size >>> 6];
+            long[] initiallyLost = new long[size >>> 6];
+            IntStream.range(0, size).parallel().forEach(index -> initialize(index, solved, initiallyWon, initiallyLost));
+            long[] newlyWon = initiallyWon;
+            long[] newlyLost = initiallyLost;
+            while (true) {
+                long[] won = newlyWon;
+                forEachSet(newlyLost, index -> markStrongPredecessors(index, won));
+                if (isEmpty(won)) break;
+                long[] lost = new long[size >>> 6];
+                forEachSet(won, index -> countDownWeakPredecessors(index, lost));
+                if (isEmpty(lost)) break;
+                newlyLost = lost;
+                newlyWon = new long[size >>> 6];
+            }
+        }
+
+        // Marks illegal positions, counts the lone king's moves, and finds mates and winning promotions.
+        private void initialize(int index, Generator[] solved, long[] newlyWon, long[] newlyLost) {
+            int strongKing = index >>> (6 + shift);
+            int weakKing = (index >>> shift) & 63;
+            int square1 = piece2 == PieceConstants.NONE ? index & 63 : (index >>> 6) & 63;
+            int square2 = piece2 == PieceConstants.NONE ? -1 : index & 63;
+
+            long kings = 1L << strongKing | 1L << weakKing;
+            long pieces = 1L << square1 | (square2 < 0 ? 0 : 1L << square2);
+            boolean overlap = Long.bitCount(kings | pieces) != (square2 < 0 ? 3 : 4);
+            boolean pawnOnBackRank = piece1 == PieceConstants.PAWN && (square1 < 8 || square1 >= 56);
+            if (overlap || pawnOnBackRank || (Bitboards.kingAttacks(strongKing) & 1L << weakKing) != 0) {
+                strong[index] = ILLEGAL;
+                weak[index] = ILLEGAL;
+                return;
+            }
+
+            long occupancy = kings | pieces;
+            long attacked = attacks(strongKing, square1, square2, occupancy & ~(1L << weakKing));
+            boolean inCheck = (attacked & 1L << weakKing) != 0;
+
+            // Strong side to move: illegal if the lone king is already in check.
+            if (inCheck) {
+                strong[index] = ILLEGAL;
+            } else if (piece1 == PieceConstants.PAWN && square1 >= 48 && (occupancy & 1L << (square1 + 8)) == 0
+                    && (solved[KQK].lostAfterPromotion(strongKing, weakKing, square1 + 8)
+                    || solved[KRK].lostAfterPromotion(strongKing, weakKing, square1 + 8))) {
+                strong[index] = WON;
+                setBit(newlyWon, index);
+            }
+
+            // Lone king to move.
+            long targets = Bitboards.kingAttacks(weakKing) & ~attacked;
+            if ((targets & pieces) != 0) {
+                weak[index] = SAFE; // Takes an undefended piece: a draw.
+            } else if (targets == 0) {
+                weak[index] = inCheck ? 0 : SAFE; // Mate, or stalemate.
+                if (inCheck) setBit(newlyLost, index);
+            } else {
+                weak[index] = (byte) Long.bitCount(targets);
+            }
+        }
+
+        private boolean lostAfterPromotion(int strongKing, int weakKing, int square) {
+            return weak[(strongKing << 6 | weakKing) << 6 | square] == 0;
+        }
+
+        // Squares the strong side attacks (occupancy without the lone king, so it cannot hide behind itself).
+        private long attacks(int strongKing, int square1, int square2, long occupancy) {
+            long attacked = Bitboards.kingAttacks(strongKing) | pieceAttacks(piece1, square1, occupancy);
+            if (square2 >= 0) attacked |= pieceAttacks(piece2, square2, occupancy);
+            return attacked;
+        }
+
+        private static long pieceAttacks(int type, int square, long occupancy) {
+            return switch (type) {
+                case PieceConstants.PAWN -> Bitboards.pawnAttacks(square, true);
+                case PieceConstants.KNIGHT -> Bitboards.knightAttacks(square);
+                case PieceConstants.BISHOP -> Bitboards.bishopAttacks(square, occupancy);
+                case PieceConstants.ROOK -> Bitboards.rookAttacks(square, occupancy);
+                default -> Bitboards.queenAttacks(square, occupancy);
+            };
+        }
+
+        // Weak position just lost: every strong move into it wins. Un-moves never uncapture.
+        private void markStrongPredecessors(int index, long[] newlyWon) {
+            int strongKing = index >>> (6 + shift);
+            int weakKing = (index >>> shift) & 63;
+            int square1 = piece2 == PieceConstants.NONE ? index & 63 : (index >>> 6) & 63;
+            int square2 = piece2 == PieceConstants.NONE ? -1 : index & 63;
+            long occupancy = 1L << strongKing | 1L << weakKing | 1L << square1 | (square2 < 0 ? 0 : 1L << square2);
+
+            int kingShift = 6 + shift;
+            int rest = index & ~(63 << kingShift);
+            for (long from = Bitboards.kingAttacks(strongKing) & ~occupancy; from != 0; from &= from - 1) {
+                markWon(rest | Long.numberOfTrailingZeros(from) << kingShift, newlyWon);
+            }
+
+            int shift1 = square2 < 0 ? 0 : 6;
+            rest = index & ~(63 << shift1);
+            for (long from = unmoveSources(piece1, square1, occupancy); from != 0; from &= from - 1) {
+                markWon(rest | Long.numberOfTrailingZeros(from) << shift1, newlyWon);
+            }
+            if (square2 >= 0) {
+                rest = index & ~63;
+                for (long from = unmoveSources(piece2, square2, occupancy); from != 0; from &= from - 1) {
+                    markWon(rest | Long.numberOfTrailingZeros(from), newlyWon);
+                }
+            }
+        }
+
+        // Empty squares a piece on {@code square} can have come from.
+        private static long unmoveSources(int type, int square, long occupancy) {
+            if (type != PieceConstants.PAWN) return pieceAttacks(type, square, occupancy) & ~occupancy;
+            long sources = 0;
+            if (square >= 16 && (occupancy & 1L << (square - 8)) == 0) {
+                sources |= 1L << (square - 8);
+                if (square >= 24 && square < 32 && (occupancy & 1L << (square - 16)) == 0) {
+                    sources |= 1L << (square - 16);
+                }
+            }
+            return sources;
+        }
+
+        private void markWon(int index, long[] newlyWon) {
+            if (BYTES.compareAndSet(strong, index, UNDECIDED, WON)) setBit(newlyWon, index);
+        }
+
+        // Strong position just won: every lone-king move into it loses one escape.
+        private void countDownWeakPredecessors(int index, long[] newlyLost) {
+            int weakKing = (index >>> shift) & 63;
+            int strongKing = index >>> (6 + shift);
+            long occupancy = 1L << strongKing;
+            int square1 = piece2 == PieceConstants.NONE ? index & 63 : (index >>> 6) & 63;
+            occupancy |= 1L << square1;
+            if (piece2 != PieceConstants.NONE) occupancy |= 1L << (index & 63);
+
+            int rest = index & ~(63 << shift);
+            for (long from = Bitboards.kingAttacks(weakKing) & ~occupancy; from != 0; from &= from - 1) {
+                int predecessor = rest | Long.numberOfTrailingZeros(from) << shift;
+                // A CAS loop rather than getAndAdd: the count must stop at 0 (already lost) and never
+                // touch SAFE (never lost), whichever thread gets there first.
+                byte count;
+                do {
+                    count = (byte) BYTES.getVolatile(weak, predecessor);
+                } while (count > 0 && count < SAFE && !BYTES.compareAndSet(weak, predecessor, count, (byte) (count - 1)));
+                if (count == 1) setBit(newlyLost, predecessor);
+            }
+        }
+
+        // 2 bits per position: strong to move first (win or draw), then weak to move (loss or draw).
+        void pack(byte[] data, int offset) {
+            for (int index = 0; index < size; index++) {
+                if (strong[index] == WON) data[offset + (index >>> 2)] |= (byte) (PACKED_WIN << ((index & 3) * 2));
+                long entry = (long) size + index;
+                if (weak[index] == 0) {
+                    data[offset + (int) (entry >>> 2)] |= (byte) (PACKED_LOSS << ((entry & 3) * 2));
+                }
+            }
+        }
+
+        private static void setBit(long[] bits, int index) {
+            LONGS.getAndBitwiseOr(bits, index >>> 6, 1L << index);
+        }
+
+        private static boolean isEmpty(long[] bits) {
+            for (long word : bits) {
+                if (word != 0) return false;
+            }
+            return true;
+        }
+
+        private static void forEachSet(long[] bits, java.util.function.IntConsumer action) {
+            IntStream.range(0, bits.length).parallel().forEach(word -> {
+                for (long set = bits[word]; set != 0; set &= set - 1) {
+                    action.accept(word << 6 | Long.numberOfTrailingZeros(set));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+import com.ChilliSauce.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Entry point for front ends (GUI, UCI, match runner). Searches always run on a copy of the
+ * caller's board, so the caller's board is never touched and may be used while the engine thinks.
+ * {@link #searchAsync} runs on the engine's own daemon thread, never on the caller's (e.g. the EDT).
+ * <p>
+ * With more than one thread the engine runs Lazy SMP: helper threads search the same root on
+ * their own board copies and share only the transposition table. The main thread enforces the
+ * limits and reports progress; when it finishes, the helpers are stopped and the deepest
+ * completed result wins (ties go to the lowest thread index, so the main thread is preferred).
+ * <p>
+ * Pondering: after playing a move the engine can keep searching the position that arises after
+ * the opponent's expected reply, on the opponent's time. If that reply is played (a ponder hit),
+ * the ponder search's result is the engine's answer; otherwise only its transposition table
+ * entries are kept.
+ * <p>
+ * MultiPV ({@link #setMultiPv}): the main thread reports the best N lines every iteration, each
+ * through the listener; the returned result is the best line.
+ * <p>
+ * With an {@link OpeningBook} set, a limited search (not analysis or pondering) of a book position
+ * returns the book move at once, without searching.
+ * <p>
+ * With an {@link Nnue} network set, positions are scored by the network instead of the hand-written
+ * {@link Evaluation}; each search thread keeps its own accumulator on its board copy.
+ */
+public final class Engine {
+    public static final int DEFAULT_HASH_MB = 16;
+
+    /**
+     * Nodes searched by one thread during the last search.
+     */
+    public record ThreadStats(int thread, long nodes, long nodesPerSecond) {
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ExecutorService helperPool;
+    private int threads = 1;
+    private int multiPv = 1;
+
+    private volatile Search[] currentSearches;
+    private volatile List<ThreadStats> lastThreadStats = List.of();
+    private TranspositionTable table = new TranspositionTable(DEFAULT_HASH_MB);
+    // One per thread: unshared, so probes need no synchronisation.
+    private PawnHashTable[] pawnTables = {new PawnHashTable(PawnHashTable.DEFAULT_SLOTS)};
+
+    private CompletableFuture<SearchResult> ponderSearch;
+    private long ponderKey;
+
+    private volatile OpeningBook book;
+    private volatile boolean bookBestMove;
+    private volatile Nnue network;
+
+    public Engine() {
+        // Ready within a few seconds on the first run, milliseconds after; searches use them once loaded.
+        Bitbases.loadAsync();
+    }
+
+    /**
+     * Searches a copy of {@code board} on the calling thread and returns the best move and PV.
+     *
+     * @param listener notified after every completed iteration; may be null
+     */
+    public SearchResult search(Board board, SearchLimits limits, SearchListener listener) {
+        SearchResult bookResult = probeBook(board, limits);
+        if (bookResult != null) return bookResult;
+        return runSearch(start(board), limits, listener);
+    }
+
+    /**
+     * Starts searching a copy of {@code board} in the background. The copy is taken before this
+     * method returns, so the caller may keep changing its board.
+     */
+    public CompletableFuture<SearchResult> searchAsync(Board board, SearchLimits limits, SearchListener listener) {
+        SearchResult bookResult = probeBook(board, limits);
+        if (bookResult != null) return CompletableFuture.completedFuture(bookResult);
+        Search[] searches = start(board);
+        return CompletableFuture.supplyAsync(() -> runSearch(searches, limits, listener), executor);
+    }
+
+    // A depth-0 result holding the book move, or null when out of book (or analysing).
+    private SearchResult probeBook(Board board, SearchLimits limits) {
+        OpeningBook book = this.book;
+        if (book == null || limits.isInfinite()) return null;
+        int move = bookBestMove ? book.bestMove(board) : book.randomMove(board, ThreadLocalRandom.current());
+        if (move == Move.NONE) return null;
+        lastThreadStats = List.of(); // No threads searched.
+        return new SearchResult(move, 0, 0, 0, 0, new int[]{move});
+    }
+
+    // Registered before the search runs, so a stop() that arrives first is not lost.
+    private Search[] start(Board board) {
+        Search[] searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(new Board(board), table, pawnTables[i], i);
+            searches[i].setNodeCounter(() -> totalNodes(searches));
+            searches[i].setNetwork(network);
+        }
+        searches[0].setMultiPv(multiPv); // Helpers only fill the table for the main thread's lines.
+        currentSearches = searches;
+        return searches;
+    }
+
+    private SearchResult runSearch(Search[] searches, SearchLimits limits, SearchListener listener) {
+        try {
+            table.newSearch();
+            long start = System.nanoTime();
+            List<Future<SearchResult>> helpers = new ArrayList<>();
+            for (int i = 1; i < searches.length; i++) {
+                Search helper = searches[i];
+                helpers.add(helperPool.submit(() -> helper.search(SearchLimits.depth(limits.depth()), null)));
+            }
+
+            SearchResult best;
+            try {
+                best = searches[0].search(limits, listener);
+            } finally {
+                for (Search search : searches) search.stop();
+            }
+            for (Future<SearchResult> helper : helpers) {
+                SearchResult result = waitFor(helper);
+                if (result != null && result.depth() > best.depth() && result.pv().length > 0) {
+                    best = result;
+                }
+            }
+
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            List<ThreadStats> stats = new ArrayList<>(searches.length);
+            for (int i = 0; i < searches.length; i++) {
+                long nodes = searches[i].getNodes();
+                stats.add(new ThreadStats(i, nodes, elapsedMillis == 0 ? 0 : nodes * 1000 / elapsedMillis));
+            }
+            lastThreadStats = List.copyOf(stats);
+            return new SearchResult(best.bestMove(), best.score(), best.depth(), totalNodes(searches),
+                    elapsedMillis, best.pv());
+        } finally {
+            if (currentSearches == searches) currentSearches = null;
+        }
+    }
+
+    /**
+     * Starts pondering: searches the position after {@code predictedMove} (usually the second move
+     * of the engine's last PV) in the background until {@link #takePonderResult} or {@link #stop}.
+     *
+     * @param board the position after the engine's own move, with the opponent to move
+     */
+    public void startPonder(Board board, int predictedMove, SearchListener listener) {
+        Board ponderBoard = new Board(board);
+        ponderBoard.makeMove(predictedMove);
+        ponderKey = ponderBoard.getZobristKey();
+        ponderSearch = searchAsync(ponderBoard, SearchLimits.infinite(), listener);
+    }
+
+    public boolean isPondering() {
+        return ponderSearch != null;
+    }
+
+    /**
+     * Ends pondering. The returned future completes with the ponder search's result if {@code board}
+     * is the position that was pondered (a ponder hit), or with null if the opponent played
+     * something else. Never blocks the caller.
+     */
+    public CompletableFuture<SearchResult> takePonderResult(Board board) {
+        CompletableFuture<SearchResult> search = ponderSearch;
+        if (search == null) return CompletableFuture.completedFuture(null);
+        ponderSearch = null;
+        boolean isHit = board.getZobristKey() == ponderKey;
+        stop();
+        return search.thenApply(result -> isHit && result.bestMove() != Move.NONE ? result : null);
+    }
+
+    private static SearchResult waitFor(Future<SearchResult> helper) {
+        try {
+            return helper.get();
+        } catch (ExecutionException e) {
+            return null; // A failed helper only costs speed; the main thread's result stands.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static long totalNodes(Search[] searches) {
+        long nodes = 0;
+        for (Search search : searches) nodes += search.getNodes();
+        return nodes;
+    }
+
+    /**
+     * Stops the running search, if any; it completes with its last finished iteration.
+     */
+    public void stop() {
+        ponderSearch = null;
+        Search[] searches = currentSearches;
+        if (searches != null) {
+            for (Search search : searches) search.stop();
+        }
+    }
+
+    /**
+     * Sets the number of search threads (1 = single-threaded); call between searches.
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        if (helperPool != null) helperPool.shutdownNow();
+        this.threads = threads;
+        pawnTables = new PawnHashTable[threads];
+        for (int i = 0; i < threads; i++) pawnTables[i] = new PawnHashTable(PawnHashTable.DEFAULT_SLOTS);
+        helperPool = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "engine-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets how many best lines analysis reports (1 = normal play); call between searches.
+     */
+    public void setMultiPv(int lines) {
+        if (lines < 1) {
+            throw new IllegalArgumentException("MultiPV must be at least 1");
+        }
+        multiPv = lines;
+    }
+
+    public int getMultiPv() {
+        return multiPv;
+    }
+
+    /**
+     * Per-thread node counts and speeds of the last finished search.
+     */
+    public List<ThreadStats> getLastThreadStats() {
+        return lastThreadStats;
+    }
+
+    /**
+     * Replaces the transposition table with an empty one of {@code megabytes}; call between searches.
+     */
+    public void setHashSize(int megabytes) {
+        table = new TranspositionTable(megabytes);
+    }
+
+    /**
+     * Forgets everything learned in earlier searches (e.g. when a new game starts).
+     */
+    public void clearHash() {
+        table.clear();
+        for (PawnHashTable pawnTable : pawnTables) pawnTable.clear();
+    }
+
+    /**
+     * Sets the opening book to play from (null = none). By default book moves are picked at random
+     * in proportion to their weights; {@code bestMove} always plays the highest-weighted one.
+     */
+    public void setOpeningBook(OpeningBook book, boolean bestMove) {
+        this.book = book;
+        this.bookBestMove = bestMove;
+    }
+
+    public OpeningBook getOpeningBook() {
+        return book;
+    }
+
+    /**
+     * Sets the evaluation network (null = the hand-written evaluation); used from the next search on.
+     */
+    public void setNetwork(Nnue network) {
+        this.network = network;
+    }
+
+    public Nnue getNetwork() {
+        return network;
+    }
+
+    /**
+     * The main search thread's pawn structure cache.
+     */
+    public PawnHashTable getPawnTable() {
+        return pawnTables[0];
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public boolean isSearching() {
+        return currentSearches != null;
+    }
+
+    public void shutdown() {
+        stop();
+        executor.shutdownNow();
+        if (helperPool != null) helperPool.shutdownNow();
+    }
+}
@@ -0,0 +1,36 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+
+import java.util.List;
+
+/**
+ * Plays match games with an {@link Engine} in this process, searching on the game thread.
+ */
+public final class EnginePlayer implements MatchPlayer {
+    private final Engine engine = new Engine();
+
+    /**
+     * @param network the evaluation network, or null for the hand-written evaluation
+     */
+    public EnginePlayer(int hashMegabytes, int threads, Nnue network) {
+        engine.setHashSize(hashMegabytes);
+        engine.setThreads(threads);
+        engine.setNetwork(network);
+    }
+
+    @Override
+    public void newGame() {
+        engine.clearHash();
+    }
+
+    @Override
+    public int selectMove(String startFen, List<Integer> moves, Board board, SearchLimits limits) {
+        return engine.search(board, limits, null).bestMove();
+    }
+
+    @Override
+    public void close() {
+        engine.shutdown();
+    }
+}
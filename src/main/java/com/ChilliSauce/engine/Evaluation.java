@@ -0,0 +1,294 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Bitboards;
+import com.ChilliSauce.Board;
+import com.ChilliSauce.PieceConstants;
+import com.ChilliSauce.PieceSquareTables;
+
+/**
+ * Static evaluation of a position, in centipawns from the side to move's point of view.
+ * <p>
+ * The material and piece-square terms are kept up to date by {@link Board} on every piece change,
+ * so evaluating a leaf is O(1): the midgame and endgame sums are blended by the game phase.
+ * Pawn structure (passed, doubled, isolated and backward pawns) is cached in a
+ * {@link PawnHashTable} by the board's pawn key; the terms that also depend on the kings (pawn
+ * shield, king distance to passed pawns) are added on every call from the cached passed-pawn masks.
+ * Run with {@code -Dchess.eval.selfcheck=true} to compare every evaluation against a full
+ * recompute from the 64 squares (slow; for debugging make/unmake).
+ */
+public final class Evaluation {
+    // Rough piece values by bare type (PieceConstants.KING .. PAWN), for move ordering and pruning margins.
+    public static final int[] PIECE_VALUES = {0, 0, 900, 500, 320, 330, 100};
+
+    private static final boolean SELF_CHECK = Boolean.getBoolean("chess.eval.selfcheck");
+
+    // Pawn structure, {midgame, endgame}; passed pawn bonuses by rank from the pawn's own side.
+    private static final int[] PASSED_MIDGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 90, 130, 0};
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    private static final int BACKWARD_MIDGAME = -8;
+    private static final int BACKWARD_ENDGAME = -10;
+    // Midgame bonus per own pawn directly in front of a castled king, and one rank further.
+    private static final int SHIELD_NEAR = 12;
+    private static final int SHIELD_FAR = 6;
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // [color][square]: squares in front of a pawn on its own and adjacent files (0 = white, 1 = black).
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    // [color][square]: squares beside and behind a pawn on adjacent files, where its supporters stand.
+    private static final long[][] SUPPORT_SPAN = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILES[file] = Bitboards.FILE_A << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0) | (file < 7 ? FILES[file + 1] : 0);
+        }
+        for (int square = 0; square < 64; square++) {
+            int rank = square >>> 3;
+            long aboveRank = rank == 7 ? 0 : -1L << ((rank + 1) * 8);
+            long belowRank = rank == 0 ? 0 : -1L >>> ((8 - rank) * 8);
+            long files = FILES[square & 7] | ADJACENT_FILES[square & 7];
+            PASSED_SPAN[0][square] = files & aboveRank;
+            PASSED_SPAN[1][square] = files & belowRank;
+            SUPPORT_SPAN[0][square] = ADJACENT_FILES[square & 7] & ~aboveRank;
+            SUPPORT_SPAN[1][square] = ADJACENT_FILES[square & 7] & ~belowRank;
+        }
+    }
+
+    private Evaluation() {
+    }
+
+    public static int evaluate(Board board) {
+        return evaluate(board, null);
+    }
+
+    /**
+     * Evaluates using {@code pawnTable} to cache the pawn structure (null = no cache).
+     */
+    public static int evaluate(Board board, PawnHashTable pawnTable) {
+        if (SELF_CHECK) verifyIncremental(board);
+        long pawnKey = board.getPawnKey();
+        int slot = pawnTable == null ? -1 : pawnTable.probe(pawnKey);
+        long pawnScores;
+        long whitePassed;
+        long blackPassed;
+        if (slot >= 0) {
+            pawnScores = pawnTable.scores(slot);
+            whitePassed = pawnTable.passedPawns(slot, true);
+            blackPassed = pawnTable.passedPawns(slot, false);
+        } else {
+            whitePassed = passedPawns(board, true);
+            blackPassed = passedPawns(board, false);
+            pawnScores = pawnStructure(board, whitePassed, blackPassed);
+            if (pawnTable != null) pawnTable.store(pawnKey, pawnScores, whitePassed, blackPassed);
+        }
+        int score = blend(board.getMidgameScore(), board.getEndgameScore(), pawnScores, whitePassed, blackPassed, board);
+        return board.isWhiteTurn() ? score : -score;
+    }
+
+    /**
+     * Same score as {@link #evaluate}, but recomputed from scratch by scanning every square.
+     */
+    public static int evaluateFull(Board board) {
+        int[] terms = recomputeTerms(board);
+        long whitePassed = passedPawns(board, true);
+        long blackPassed = passedPawns(board, false);
+        long pawnScores = pawnStructure(board, whitePassed, blackPassed);
+        int score = blend(terms[0], terms[1], pawnScores, whitePassed, blackPassed, board);
+        return board.isWhiteTurn() ? score : -score;
+    }
+
+    /**
+     * Throws if the board's incremental terms differ from a full recompute.
+     */
+    public static void verifyIncremental(Board board) {
+        int[] terms = recomputeTerms(board);
+        if (terms[0] != board.getMidgameScore() || terms[1] != board.getEndgameScore()
+                || terms[2] != board.getGamePhase() || board.computePawnKey() != board.getPawnKey()) {
+            throw new IllegalStateException(String.format(
+                    "Incremental evaluation out of sync: mg %d/%d, eg %d/%d, phase %d/%d, pawn key %x/%x",
+                    board.getMidgameScore(), terms[0], board.getEndgameScore(), terms[1],
+                    board.getGamePhase(), terms[2], board.getPawnKey(), board.computePawnKey()));
+        }
+    }
+
+    // {midgame, endgame, phase}
+    private static int[] recomputeTerms(Board board) {
+        int midgame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (int square = 0; square < 64; square++) {
+            int piece = board.getPiece(square);
+            if (piece == PieceConstants.NONE) continue;
+            midgame += PieceSquareTables.midgame(piece, square);
+            endgame += PieceSquareTables.endgame(piece, square);
+            phase += PieceSquareTables.phase(piece);
+        }
+        return new int[]{midgame, endgame, phase};
+    }
+
+    // ---------------------------------------------------------
+    // Pawn structure
+    // ---------------------------------------------------------
+    private static long passedPawns(Board board, boolean white) {
+        long own = board.getBitboard(PieceConstants.PAWN | (white ? PieceConstants.WHITE : PieceConstants.BLACK));
+        long enemy = board.getBitboard(PieceConstants.PAWN | (white ? PieceConstants.BLACK : PieceConstants.WHITE));
+        long passed = 0;
+        for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            if ((PASSED_SPAN[white ? 0 : 1][square] & enemy) == 0) passed |= 1L << square;
+        }
+        return passed;
+    }
+
+    // Passed, doubled, isolated and backward pawns, white minus black, packed as (midgame << 32 | endgame).
+    private static long pawnStructure(Board board, long whitePassed, long blackPassed) {
+        int midgame = 0;
+        int endgame = 0;
+        for (int side = 0; side < 2; side++) {
+            boolean white = side == 0;
+            int sign = white ? 1 : -1;
+            long own = board.getBitboard(PieceConstants.PAWN | (white ? PieceConstants.WHITE : PieceConstants.BLACK));
+            long enemy = board.getBitboard(PieceConstants.PAWN | (white ? PieceConstants.BLACK : PieceConstants.WHITE));
+            long enemyAttacks = Bitboards.pawnAttacks(enemy, !white);
+            long passed = white ? whitePassed : blackPassed;
+
+            for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+                int square = Long.numberOfTrailingZeros(pawns);
+                int file = square & 7;
+                int relativeRank = white ? square >>> 3 : 7 - (square >>> 3);
+                if ((passed & 1L << square) != 0) {
+                    midgame += sign * PASSED_MIDGAME[relativeRank];
+                    endgame += sign * PASSED_ENDGAME[relativeRank];
+                }
+                if ((own & ADJACENT_FILES[file]) == 0) {
+                    midgame += sign * ISOLATED_MIDGAME;
+                    endgame += sign * ISOLATED_ENDGAME;
+                } else if ((own & SUPPORT_SPAN[side][square]) == 0) {
+                    // No neighbour can come up to support it, and an enemy pawn guards its stop square.
+                    int stop = white ? square + 8 : square - 8;
+                    if ((enemyAttacks & 1L << stop) != 0) {
+                        midgame += sign * BACKWARD_MIDGAME;
+                        endgame += sign * BACKWARD_ENDGAME;
+                    }
+                }
+            }
+            for (int file = 0; file < 8; file++) {
+                int count = Long.bitCount(own & FILES[file]);
+                if (count > 1) {
+                    midgame += sign * DOUBLED_MIDGAME * (count - 1);
+                    endgame += sign * DOUBLED_ENDGAME * (count - 1);
+                }
+            }
+        }
+        return (long) midgame << 32 | (endgame & 0xFFFFFFFFL);
+    }
+
+    // Own pawns in front of a king on its first two ranks (the usual castled position), midgame only.
+    private static int pawnShield(Board board, boolean white) {
+        int color = white ? PieceConstants.WHITE : PieceConstants.BLACK;
+        int king = Long.numberOfTrailingZeros(board.getBitboard(PieceConstants.KING | color));
+        int relativeRank = white ? king >>> 3 : 7 - (king >>> 3);
+        if (relativeRank > 1) return 0;
+        long files = FILES[king & 7] | ADJACENT_FILES[king & 7];
+        long pawns = board.getBitboard(PieceConstants.PAWN | color) & files;
+        long near = white ? pawns & (Bitboards.RANK_1 << ((relativeRank + 1) * 8))
+                : pawns & (Bitboards.RANK_8 >>> ((relativeRank + 1) * 8));
+        long far = white ? pawns & (Bitboards.RANK_1 << ((relativeRank + 2) * 8))
+                : pawns & (Bitboards.RANK_8 >>> ((relativeRank + 2) * 8));
+        return SHIELD_NEAR * Long.bitCount(near) + SHIELD_FAR * Long.bitCount(far);
+    }
+
+    // Endgame: passed pawns are stronger when the enemy king is far from the stop square and
+    // their own king near it, and weaker when the stop square is occupied.
+    private static int passedPawnKings(Board board, long passed, boolean white) {
+        int ownKing = Long.numberOfTrailingZeros(board.getBitboard(PieceConstants.KING
+                | (white ? PieceConstants.WHITE : PieceConstants.BLACK)));
+        int enemyKing = Long.numberOfTrailingZeros(board.getBitboard(PieceConstants.KING
+                | (white ? PieceConstants.BLACK : PieceConstants.WHITE)));
+        long occupancy = board.getOccupancy();
+        int bonus = 0;
+        for (; passed != 0; passed &= passed - 1) {
+            int square = Long.numberOfTrailingZeros(passed);
+            int weight = (white ? square >>> 3 : 7 - (square >>> 3)) - 1;
+            if (weight <= 0) continue;
+            int stop = white ? square + 8 : square - 8;
+            bonus += weight * (5 * kingDistance(enemyKing, stop) - 2 * kingDistance(ownKing, stop));
+            if ((occupancy & 1L << stop) != 0) bonus -= weight * 5;
+        }
+        return bonus;
+    }
+
+    /**
+     * Bonus for driving a won ending home, for the side with the extra material: its material,
+     * pawn advancement, the lone king pushed to the edge (to the corner the bishop can cover in
+     * KBNK) and the two kings close together. Used on top of a known win from the bitbases.
+     */
+    public static int mopUp(Board board, boolean strongIsWhite) {
+        int color = strongIsWhite ? PieceConstants.WHITE : PieceConstants.BLACK;
+        int strongKing = Long.numberOfTrailingZeros(board.getBitboard(PieceConstants.KING | color));
+        int weakKing = Long.numberOfTrailingZeros(board.getBitboard(PieceConstants.KING | (color ^ 24)));
+
+        int bonus = 0;
+        for (int type = PieceConstants.QUEEN; type <= PieceConstants.PAWN; type++) {
+            bonus += PIECE_VALUES[type] * Long.bitCount(board.getBitboard(type | color));
+        }
+        long pawns = board.getBitboard(PieceConstants.PAWN | color);
+        for (; pawns != 0; pawns &= pawns - 1) {
+            int rank = Long.numberOfTrailingZeros(pawns) >>> 3;
+            bonus += 20 * (strongIsWhite ? rank : 7 - rank);
+        }
+
+        long bishops = board.getBitboard(PieceConstants.BISHOP | color);
+        if (bishops != 0 && board.getBitboard(PieceConstants.KNIGHT | color) != 0) {
+            // Mate is only possible in a corner of the bishop's colour: a1/h8 for dark squares.
+            int bishop = Long.numberOfTrailingZeros(bishops);
+            boolean darkBishop = ((bishop >>> 3) + (bishop & 7)) % 2 == 0;
+            int cornerDistance = darkBishop ? Math.min(distance(weakKing, 0), distance(weakKing, 63))
+                    : Math.min(distance(weakKing, 7), distance(weakKing, 56));
+            bonus += 20 * (14 - cornerDistance);
+        } else {
+            bonus += 10 * centerDistance(weakKing);
+        }
+        bonus += 4 * (14 - distance(strongKing, weakKing));
+        return bonus;
+    }
+
+    // Number of king moves between two squares.
+    private static int kingDistance(int a, int b) {
+        return Math.max(Math.abs((a >>> 3) - (b >>> 3)), Math.abs((a & 7) - (b & 7)));
+    }
+
+    // Manhattan distance between two squares.
+    private static int distance(int a, int b) {
+        return Math.abs((a >>> 3) - (b >>> 3)) + Math.abs((a & 7) - (b & 7));
+    }
+
+    // Manhattan distance to the nearest of the four centre squares (0 .. 6).
+    private static int centerDistance(int square) {
+        int file = square & 7;
+        int rank = square >>> 3;
+        return Math.max(3 - file, file - 4) + Math.max(3 - rank, rank - 4);
+    }
+
+    // Incremental material/piece-square sums plus pawn structure and the king-dependent pawn terms.
+    private static int blend(int midgame, int endgame, long pawnScores, long whitePassed, long blackPassed,
+                             Board board) {
+        midgame += (int) (pawnScores >> 32) + pawnShield(board, true) - pawnShield(board, false);
+        endgame += (int) pawnScores + passedPawnKings(board, whitePassed, true)
+                - passedPawnKings(board, blackPassed, false);
+        return blend(midgame, endgame, board.getGamePhase());
+    }
+
+    private static int blend(int midgame, int endgame, int phase) {
+        int midgameWeight = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (midgame * midgameWeight + endgame * (PieceSquareTables.MAX_PHASE - midgameWeight))
+                / PieceSquareTables.MAX_PHASE;
+    }
+}
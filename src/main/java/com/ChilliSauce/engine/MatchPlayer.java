@@ -0,0 +1,32 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * One side of a {@link MatchRunner} game: the engine in this process ({@link EnginePlayer}) or
+ * another engine build run as a UCI process ({@link UciPlayer}). Each game thread has its own
+ * players, so implementations need not be thread-safe.
+ */
+public interface MatchPlayer extends AutoCloseable {
+
+    /**
+     * Called before every game (e.g. to clear hash tables).
+     */
+    void newGame() throws IOException;
+
+    /**
+     * Chooses a move for the side to move.
+     *
+     * @param startFen the position the game started from
+     * @param moves    the packed moves played since then (for repetition detection)
+     * @param board    the current position; must not be modified
+     * @return a legal packed {@link com.ChilliSauce.Move}, or {@link com.ChilliSauce.Move#NONE} to forfeit
+     */
+    int selectMove(String startFen, List<Integer> moves, Board board, SearchLimits limits) throws IOException;
+
+    @Override
+    void close();
+}
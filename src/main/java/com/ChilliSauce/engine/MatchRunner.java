@@ -0,0 +1,404 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+import com.ChilliSauce.GameTermination;
+import com.ChilliSauce.Move;
+import com.ChilliSauce.MoveList;
+import com.ChilliSauce.PieceConstants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless engine-vs-engine match runner, to measure whether a change makes the engine stronger.
+ * Plays many games at once on a thread pool, each on its own {@link Board} with its own pair of
+ * players. Every opening is played twice with colours reversed. Games end by
+ * {@link GameTermination} (mate, stalemate, insufficient material, 50 moves, threefold repetition,
+ * forfeit on time or by an illegal move), are adjudicated by {@link GameTermination#knownOutcome}
+ * once a bitbase endgame is reached, and are drawn after a maximum length.
+ * After every game it prints the score, Elo with a 95% error bar, LOS and the SPRT log-likelihood
+ * ratio; with {@code --sprt} the match stops as soon as the test decides.
+ * <pre>
+ *   MatchRunner --engine name=new [hash=16] [threads=1] [nnue=&lt;file&gt;]
+ *               --engine name=old cmd="java -cp old/classes com.ChilliSauce.engine.Uci" [option.&lt;Name&gt;=&lt;value&gt;]
+ *               [--games 1000] [--concurrency N] [--nodes N | --depth N | --movetime ms | --tc 10+0.1]
+ *               [--openings &lt;file&gt; | --random-plies 8] [--seed N] [--max-plies 400]
+ *               [--sprt elo0 elo1] [--alpha 0.05] [--beta 0.05]
+ * </pre>
+ * An engine with {@code cmd} runs as a UCI process (the command is split at spaces); otherwise it
+ * is this build's {@link Engine}. Opening files hold one FEN per line, optionally followed by
+ * {@code moves <uci moves>}; without one, openings are random legal moves from the start position.
+ */
+public final class MatchRunner {
+
+    /**
+     * One engine of the match and how to create a player for it.
+     */
+    public record EngineSpec(String name, Map<String, String> settings) {
+
+        MatchPlayer createPlayer() throws IOException {
+            int hash = Integer.parseInt(settings.getOrDefault("hash", String.valueOf(Engine.DEFAULT_HASH_MB)));
+            int threads = Integer.parseInt(settings.getOrDefault("threads", "1"));
+            String command = settings.get("cmd");
+            if (command == null) {
+                String network = settings.get("nnue");
+                return new EnginePlayer(hash, threads, network == null ? null : Nnue.load(Path.of(network)));
+            }
+            Map<String, String> options = new LinkedHashMap<>();
+            if (settings.containsKey("hash")) options.put("Hash", String.valueOf(hash));
+            if (settings.containsKey("threads")) options.put("Threads", String.valueOf(threads));
+            settings.forEach((key, value) -> {
+                if (key.startsWith("option.")) options.put(key.substring("option.".length()), value);
+            });
+            return new UciPlayer(Arrays.asList(command.trim().split("\\s+")), options);
+        }
+    }
+
+    /**
+     * A start position: a FEN and moves played from it (UCI notation).
+     */
+    public record Opening(String fen, List<String> moves) {
+    }
+
+    private record GameOutcome(double firstScore, String reason) {
+    }
+
+    private final EngineSpec first;
+    private final EngineSpec second;
+    private final List<Opening> openings;
+    private int games = 100;
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+    private SearchLimits limits = SearchLimits.nodes(20_000);
+    private long clockMillis;
+    private long incrementMillis;
+    private int maxPlies = 400;
+    private boolean sprt;
+    private double elo0 = 0;
+    private double elo1 = 5;
+    private double alpha = 0.05;
+    private double beta = 0.05;
+
+    // Match state, guarded by this.
+    private MatchStatistics statistics = MatchStatistics.EMPTY;
+    private final Map<String, Integer> reasons = new TreeMap<>();
+    private int gamesFinished;
+    private volatile boolean decided;
+
+    public MatchRunner(EngineSpec first, EngineSpec second, List<Opening> openings) {
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("At least one opening is needed");
+        }
+        this.first = first;
+        this.second = second;
+        this.openings = List.copyOf(openings);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<EngineSpec> engines = new ArrayList<>();
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--engine")) {
+                Map<String, String> settings = new LinkedHashMap<>();
+                while (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    String setting = args[++i];
+                    int equals = setting.indexOf('=');
+                    if (equals < 0) usage("Engine settings are key=value: " + setting);
+                    settings.put(setting.substring(0, equals), setting.substring(equals + 1));
+                }
+                engines.add(new EngineSpec(settings.getOrDefault("name", "engine" + (engines.size() + 1)), settings));
+            } else if (args[i].equals("--sprt")) {
+                if (i + 2 >= args.length) usage("--sprt needs elo0 and elo1");
+                options.put("--sprt", args[++i] + " " + args[++i]);
+            } else if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i], args[++i]);
+            } else {
+                usage("Unknown argument: " + args[i]);
+            }
+        }
+        if (engines.size() != 2) usage("Exactly two --engine options are needed");
+
+        long seed = Long.parseLong(options.getOrDefault("--seed", "1"));
+        int games = Integer.parseInt(options.getOrDefault("--games", "100"));
+        List<Opening> openings = options.containsKey("--openings")
+                ? readOpenings(Path.of(options.get("--openings")))
+                : randomOpenings((games + 1) / 2, Integer.parseInt(options.getOrDefault("--random-plies", "8")),
+                new SplittableRandom(seed));
+
+        MatchRunner runner = new MatchRunner(engines.get(0), engines.get(1), openings);
+        runner.games = games;
+        runner.concurrency = Integer.parseInt(options.getOrDefault("--concurrency", String.valueOf(runner.concurrency)));
+        runner.maxPlies = Integer.parseInt(options.getOrDefault("--max-plies", String.valueOf(runner.maxPlies)));
+        if (options.containsKey("--nodes")) runner.limits = SearchLimits.nodes(Long.parseLong(options.get("--nodes")));
+        if (options.containsKey("--depth")) runner.limits = SearchLimits.depth(Integer.parseInt(options.get("--depth")));
+        if (options.containsKey("--movetime")) runner.limits = SearchLimits.time(Long.parseLong(options.get("--movetime")));
+        if (options.containsKey("--tc")) {
+            String[] parts = options.get("--tc").split("\\+");
+            runner.clockMillis = (long) (Double.parseDouble(parts[0]) * 1000);
+            runner.incrementMillis = parts.length > 1 ? (long) (Double.parseDouble(parts[1]) * 1000) : 0;
+        }
+        if (options.containsKey("--sprt")) {
+            String[] bounds = options.get("--sprt").split(" ");
+            runner.sprt = true;
+            runner.elo0 = Double.parseDouble(bounds[0]);
+            runner.elo1 = Double.parseDouble(bounds[1]);
+        }
+        runner.alpha = Double.parseDouble(options.getOrDefault("--alpha", String.valueOf(runner.alpha)));
+        runner.beta = Double.parseDouble(options.getOrDefault("--beta", String.valueOf(runner.beta)));
+        runner.run();
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: MatchRunner --engine name=A [hash=16] [threads=1] [nnue=<file>] [cmd=<uci command>]"
+                + " [option.<Name>=<value>] --engine name=B ... [--games N] [--concurrency N]"
+                + " [--nodes N | --depth N | --movetime ms | --tc base+inc] [--openings <file> | --random-plies N]"
+                + " [--seed N] [--max-plies N] [--sprt elo0 elo1] [--alpha a] [--beta b]");
+        System.exit(2);
+    }
+
+    /**
+     * Plays the match and returns the final tally from the first engine's point of view.
+     */
+    public MatchStatistics run() throws InterruptedException {
+        if (clockMillis > 0 && concurrency > Runtime.getRuntime().availableProcessors()) {
+            System.out.println("Warning: more concurrent games than cores distorts timed games; prefer --nodes");
+        }
+        System.out.printf("%s vs %s: %d games, %d at a time, %s, %d openings%n", first.name(), second.name(),
+                games, concurrency, describeLimits(), openings.size());
+
+        // One pair of players per pool thread, created on first use and reused for every game.
+        ConcurrentLinkedQueue<MatchPlayer[]> allPlayers = new ConcurrentLinkedQueue<>();
+        ThreadLocal<MatchPlayer[]> players = ThreadLocal.withInitial(() -> {
+            try {
+                MatchPlayer[] pair = {first.createPlayer(), second.createPlayer()};
+                allPlayers.add(pair);
+                return pair;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "match-game");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int game = 0; game < games; game++) {
+                int index = game;
+                pool.execute(() -> {
+                    if (decided) return;
+                    Opening opening = openings.get(index / 2 % openings.size());
+                    boolean firstIsWhite = index % 2 == 0;
+                    GameOutcome outcome;
+                    try {
+                        outcome = playGame(players.get(), opening, firstIsWhite);
+                    } catch (RuntimeException e) {
+                        System.err.println("Game " + (index + 1) + " failed: " + e);
+                        return;
+                    }
+                    record(index, firstIsWhite, outcome);
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } finally {
+            pool.shutdownNow();
+            for (MatchPlayer[] pair : allPlayers) {
+                for (MatchPlayer player : pair) player.close();
+            }
+        }
+        printSummary();
+        return statistics;
+    }
+
+    private GameOutcome playGame(MatchPlayer[] players, Opening opening, boolean firstIsWhite) {
+        Board board = new Board(opening.fen());
+        List<Integer> moves = new ArrayList<>();
+        for (String text : opening.moves()) {
+            int move = Uci.parseMove(board, text);
+            if (move == Move.NONE) throw new IllegalArgumentException("Illegal opening move " + text);
+            board.makeMove(move);
+            moves.add(move);
+        }
+        try {
+            for (MatchPlayer player : players) player.newGame();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        GameTermination termination = new GameTermination();
+        long whiteClock = clockMillis;
+        long blackClock = clockMillis;
+        String forfeit = null;
+        for (int ply = 0; ; ply++) {
+            GameTermination.GameResult result = termination.checkGameState(board);
+            if (result.state != GameTermination.GameState.ONGOING) {
+                String reason = forfeit != null ? forfeit
+                        : result.state == GameTermination.GameState.DRAW ? result.toString() : "Checkmate";
+                return new GameOutcome(firstScore(result.state, firstIsWhite), reason);
+            }
+            GameTermination.GameState known = termination.knownOutcome(board);
+            if (known != null) return new GameOutcome(firstScore(known, firstIsWhite), "Adjudicated (bitbase)");
+            if (ply >= maxPlies) return new GameOutcome(0.5, "Draw (max length)");
+
+            boolean white = board.isWhiteTurn();
+            MatchPlayer player = players[white == firstIsWhite ? 0 : 1];
+            SearchLimits moveLimits = clockMillis > 0
+                    ? SearchLimits.clock(whiteClock, blackClock, incrementMillis, incrementMillis, 0) : limits;
+            long start = System.nanoTime();
+            int move;
+            try {
+                move = player.selectMove(opening.fen(), moves, board, moveLimits);
+            } catch (IOException e) {
+                move = Move.NONE;
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            if (clockMillis > 0) {
+                long left = (white ? whiteClock : blackClock) - elapsedMillis;
+                if (left < 0) {
+                    forfeit = "Time forfeit";
+                    if (white) termination.setWhiteTimeout(true);
+                    else termination.setBlackTimeout(true);
+                    continue;
+                }
+                if (white) whiteClock = left + incrementMillis;
+                else blackClock = left + incrementMillis;
+            }
+            if (move == Move.NONE || !isLegal(board, move)) {
+                forfeit = "Illegal move or engine failure";
+                if (white) termination.setWhiteResigned(true);
+                else termination.setBlackResigned(true);
+                continue;
+            }
+
+            boolean captureOrPawnMove = Move.isCapture(move)
+                    || (board.getPiece(Move.from(move)) & 7) == PieceConstants.PAWN;
+            board.makeMove(move);
+            moves.add(move);
+            termination.onMoveMade(board, captureOrPawnMove);
+        }
+    }
+
+    private static boolean isLegal(Board board, int move) {
+        int promotionType = Move.isPromotion(move) ? Move.promotionType(move) : PieceConstants.NONE;
+        return board.findLegalMove(Move.from(move), Move.to(move), promotionType) == move;
+    }
+
+    private static double firstScore(GameTermination.GameState state, boolean firstIsWhite) {
+        return switch (state) {
+            case WHITE_WINS -> firstIsWhite ? 1 : 0;
+            case BLACK_WINS -> firstIsWhite ? 0 : 1;
+            default -> 0.5;
+        };
+    }
+
+    private synchronized void record(int index, boolean firstIsWhite, GameOutcome outcome) {
+        if (decided) return; // Games still running when the SPRT decided are not counted.
+        statistics = statistics.add(outcome.firstScore());
+        reasons.merge(outcome.reason(), 1, Integer::sum);
+        gamesFinished++;
+
+        String white = firstIsWhite ? first.name() : second.name();
+        String black = firstIsWhite ? second.name() : first.name();
+        double whiteScore = firstIsWhite ? outcome.firstScore() : 1 - outcome.firstScore();
+        String result = whiteScore == 1 ? "1-0" : whiteScore == 0 ? "0-1" : "1/2-1/2";
+        System.out.printf("Game %d (%s vs %s): %s %s | %s%n", index + 1, white, black, result, outcome.reason(),
+                describeStatistics());
+
+        if (sprt && statistics.sprt(elo0, elo1, alpha, beta) != MatchStatistics.Verdict.CONTINUE) {
+            decided = true;
+        }
+    }
+
+    private String describeStatistics() {
+        String line = String.format("+%d -%d =%d  Elo %.1f +/- %.1f  LOS %.1f%%", statistics.wins(),
+                statistics.losses(), statistics.draws(), statistics.elo(), statistics.eloError(),
+                100 * statistics.likelihoodOfSuperiority());
+        if (!sprt) return line;
+        return line + String.format("  LLR %.2f [%.2f, %.2f]", statistics.logLikelihoodRatio(elo0, elo1),
+                MatchStatistics.lowerBound(alpha, beta), MatchStatistics.upperBound(alpha, beta));
+    }
+
+    private synchronized void printSummary() {
+        System.out.printf("%nFinished %d games: %s vs %s%n", gamesFinished, first.name(), second.name());
+        System.out.println(describeStatistics());
+        reasons.forEach((reason, count) -> System.out.printf("  %-40s %d%n", reason, count));
+        if (sprt) {
+            MatchStatistics.Verdict verdict = statistics.sprt(elo0, elo1, alpha, beta);
+            System.out.printf("SPRT [%.1f, %.1f]: %s%n", elo0, elo1, switch (verdict) {
+                case H1_ACCEPTED -> "H1 accepted (" + first.name() + " is stronger)";
+                case H0_ACCEPTED -> "H0 accepted (" + first.name() + " is not stronger)";
+                case CONTINUE -> "inconclusive, more games needed";
+            });
+        }
+    }
+
+    private String describeLimits() {
+        if (clockMillis > 0) return String.format("clock %.1fs + %.2fs", clockMillis / 1000.0, incrementMillis / 1000.0);
+        if (limits.nodes() > 0) return limits.nodes() + " nodes per move";
+        if (limits.depth() > 0) return "depth " + limits.depth();
+        return limits.timeMillis() + " ms per move";
+    }
+
+    // ---------------------------------------------------------
+    // Openings
+    // ---------------------------------------------------------
+    /**
+     * Reads one opening per line: a FEN, optionally followed by "moves" and UCI moves.
+     * Blank lines and lines starting with '#' are skipped.
+     */
+    public static List<Opening> readOpenings(Path file) throws IOException {
+        List<Opening> openings = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            int movesIndex = line.indexOf(" moves ");
+            String fen = movesIndex < 0 ? line : line.substring(0, movesIndex).strip();
+            List<String> moves = movesIndex < 0 ? List.of()
+                    : List.of(line.substring(movesIndex + " moves ".length()).strip().split("\\s+"));
+            openings.add(new Opening(fen, moves));
+        }
+        return openings;
+    }
+
+    /**
+     * {@code count} openings of {@code plies} random legal moves from the start position. They
+     * are often unbalanced, which is fine: each one is played with both colours.
+     */
+    public static List<Opening> randomOpenings(int count, int plies, SplittableRandom random) {
+        List<Opening> openings = new ArrayList<>(count);
+        MoveList moveList = new MoveList();
+        while (openings.size() < count) {
+            Board board = new Board();
+            List<String> moves = new ArrayList<>(plies);
+            for (int ply = 0; ply < plies; ply++) {
+                moveList.clear();
+                board.generateLegalMoves(moveList);
+                if (moveList.isEmpty()) break;
+                int move = moveList.get(random.nextInt(moveList.size()));
+                board.makeMove(move);
+                moves.add(Move.toUci(move));
+            }
+            moveList.clear();
+            board.generateLegalMoves(moveList);
+            if (moveList.isEmpty()) continue; // Game already over: draw again.
+            openings.add(new Opening(Board.startFEN, List.copyOf(moves)));
+        }
+        return openings;
+    }
+}
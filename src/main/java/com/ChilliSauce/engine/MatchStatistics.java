@@ -0,0 +1,133 @@
+package com.ChilliSauce.engine;
+
+/**
+ * Win/draw/loss tally of a match from the first engine's point of view, with the usual
+ * statistics: Elo difference with a 95% error bar, likelihood of superiority, and a sequential
+ * probability ratio test (SPRT) between two Elo hypotheses.
+ * <p>
+ * The SPRT uses the normal approximation of the generalised SPRT on game results (trinomial
+ * model, logistic Elo): after each game the log-likelihood ratio (LLR) of H1 "Elo = elo1"
+ * against H0 "Elo = elo0" is compared with bounds from the chosen error rates. Crossing the upper
+ * bound accepts H1 (the change is an improvement of about elo1), the lower one accepts H0.
+ * Immutable; {@link #add} returns a new tally.
+ */
+public record MatchStatistics(int wins, int draws, int losses) {
+
+    /**
+     * Outcome of the SPRT so far.
+     */
+    public enum Verdict {
+        H0_ACCEPTED,
+        H1_ACCEPTED,
+        CONTINUE
+    }
+
+    public static final MatchStatistics EMPTY = new MatchStatistics(0, 0, 0);
+
+    /**
+     * Adds one game; {@code score} is 1, 0.5 or 0 for the first engine.
+     */
+    public MatchStatistics add(double score) {
+        if (score > 0.5) return new MatchStatistics(wins + 1, draws, losses);
+        if (score < 0.5) return new MatchStatistics(wins, draws, losses + 1);
+        return new MatchStatistics(wins, draws + 1, losses);
+    }
+
+    public int games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Average points per game of the first engine (0.5 when no games were played).
+     */
+    public double score() {
+        return games() == 0 ? 0.5 : (wins + 0.5 * draws) / games();
+    }
+
+    /**
+     * Estimated Elo difference (positive = the first engine is stronger).
+     */
+    public double elo() {
+        return eloFromScore(score());
+    }
+
+    /**
+     * Half-width of the 95% confidence interval of {@link #elo()}, or infinity before there is enough data.
+     */
+    public double eloError() {
+        if (games() < 2) return Double.POSITIVE_INFINITY;
+        double score = score();
+        double deviation = 1.96 * Math.sqrt(variance() / games());
+        if (deviation == 0) return Double.POSITIVE_INFINITY;
+        double high = eloFromScore(Math.min(score + deviation, 1));
+        double low = eloFromScore(Math.max(score - deviation, 0));
+        return (high - low) / 2;
+    }
+
+    /**
+     * Likelihood of superiority: the probability that the first engine is the stronger one.
+     */
+    public double likelihoodOfSuperiority() {
+        if (wins + losses == 0) return 0.5;
+        return 0.5 * (1 + erf((wins - losses) / Math.sqrt(2.0 * (wins + losses))));
+    }
+
+    /**
+     * Log-likelihood ratio of H1 (Elo = elo1) against H0 (Elo = elo0).
+     */
+    public double logLikelihoodRatio(double elo0, double elo1) {
+        if (games() == 0) return 0;
+        // At least the variance of one draw among the games, so a run of identical results
+        // (e.g. only wins, variance 0) still decides the test.
+        double variance = Math.max(variance(), 0.25 / games());
+        double score0 = scoreFromElo(elo0);
+        double score1 = scoreFromElo(elo1);
+        return games() * (score1 - score0) * (2 * score() - score0 - score1) / (2 * variance);
+    }
+
+    /**
+     * The SPRT verdict for H0 "Elo = elo0" against H1 "Elo = elo1", with false positive rate
+     * {@code alpha} and false negative rate {@code beta}.
+     */
+    public Verdict sprt(double elo0, double elo1, double alpha, double beta) {
+        double llr = logLikelihoodRatio(elo0, elo1);
+        if (llr >= upperBound(alpha, beta)) return Verdict.H1_ACCEPTED;
+        if (llr <= lowerBound(alpha, beta)) return Verdict.H0_ACCEPTED;
+        return Verdict.CONTINUE;
+    }
+
+    public static double lowerBound(double alpha, double beta) {
+        return Math.log(beta / (1 - alpha));
+    }
+
+    public static double upperBound(double alpha, double beta) {
+        return Math.log((1 - beta) / alpha);
+    }
+
+    // Per-game variance of the score.
+    private double variance() {
+        int games = games();
+        if (games == 0) return 0;
+        double score = score();
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+                + losses * score * score) / games;
+    }
+
+    private static double eloFromScore(double score) {
+        if (score <= 0) return Double.NEGATIVE_INFINITY;
+        if (score >= 1) return Double.POSITIVE_INFINITY;
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static double scoreFromElo(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    // Abramowitz and Stegun 7.1.26, accurate to about 1e-7; plenty for a percentage.
+    private static double erf(double x) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(x));
+        double y = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return x >= 0 ? y : -y;
+    }
+}
@@ -0,0 +1,188 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+import com.ChilliSauce.Move;
+import com.ChilliSauce.MoveGenerator;
+import com.ChilliSauce.MoveList;
+import com.ChilliSauce.PieceConstants;
+
+/**
+ * Hands out the legal moves of one node in stages, best-looking first:
+ * the transposition table move, winning and equal captures and promotions by MVV-LVA, the two
+ * killer moves, the remaining quiet moves by history and countermove score, and finally the captures
+ * that lose material by {@link StaticExchange}. Each stage is generated only when the previous one
+ * is used up, so a cutoff early on skips the rest of the work.
+ * <p>
+ * In quiescence mode only the noisy moves that do not lose material are returned.
+ * <p>
+ * One picker per ply is allocated up front and reused via {@link #init}.
+ */
+public final class MovePicker {
+    private static final int STAGE_TABLE_MOVE = 0;
+    private static final int STAGE_GENERATE_NOISY = 1;
+    private static final int STAGE_NOISY = 2;
+    private static final int STAGE_GENERATE_QUIET = 3;
+    private static final int STAGE_KILLERS = 4;
+    private static final int STAGE_QUIET = 5;
+    private static final int STAGE_BAD_NOISY = 6;
+    private static final int STAGE_DONE = 7;
+
+    private static final int COUNTER_MOVE_BONUS = 1 << 22; // above any history score
+
+    private final MoveList noisyMoves = new MoveList();
+    private final MoveList quietMoves = new MoveList();
+    private final MoveList badNoisyMoves = new MoveList();
+    private final MoveList scratch = new MoveList();
+    private final int[] scores = new int[MoveList.DEFAULT_CAPACITY];
+
+    private Board board;
+    private OrderingTables tables;
+    private int stage;
+    private int index;
+    private int tableMove;
+    private int killer1;
+    private int killer2;
+    private int counterMove;
+    private int killerIndex;
+    private boolean quiescence;
+
+    /**
+     * Prepares to pick the moves of the current position on {@code board}.
+     *
+     * @param tableMove transposition table move, or {@link Move#NONE}; checked for legality before use
+     */
+    public void init(Board board, OrderingTables tables, int tableMove, int ply) {
+        this.board = board;
+        this.tables = tables;
+        this.tableMove = tableMove;
+        this.killer1 = tables.killer(ply, 0);
+        this.killer2 = tables.killer(ply, 1);
+        this.counterMove = tables.counterMove(board.getLastMove());
+        this.stage = STAGE_TABLE_MOVE;
+        this.killerIndex = 0;
+        this.quiescence = false;
+    }
+
+    /**
+     * Prepares to pick only the noisy moves that do not lose material (SEE &gt;= 0), for quiescence search.
+     */
+    public void initQuiescence(Board board, OrderingTables tables) {
+        this.board = board;
+        this.tables = tables;
+        this.tableMove = Move.NONE;
+        this.killer1 = Move.NONE;
+        this.killer2 = Move.NONE;
+        this.counterMove = Move.NONE;
+        this.stage = STAGE_GENERATE_NOISY;
+        this.quiescence = true;
+    }
+
+    /**
+     * Returns the next move to try, or {@link Move#NONE} once all legal moves were returned.
+     */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case STAGE_TABLE_MOVE -> {
+                    stage = STAGE_GENERATE_NOISY;
+                    if (tableMove != Move.NONE && isLegal(tableMove)) return tableMove;
+                    tableMove = Move.NONE;
+                }
+                case STAGE_GENERATE_NOISY -> {
+                    noisyMoves.clear();
+                    MoveGenerator.generateLegalMoves(board, noisyMoves, MoveGenerator.NOISY, -1L);
+                    for (int i = 0; i < noisyMoves.size(); i++) {
+                        scores[i] = mvvLva(noisyMoves.get(i));
+                    }
+                    badNoisyMoves.clear();
+                    index = 0;
+                    stage = STAGE_NOISY;
+                }
+                case STAGE_NOISY -> {
+                    int move = pickBest(noisyMoves);
+                    if (move == Move.NONE) {
+                        stage = quiescence ? STAGE_DONE : STAGE_GENERATE_QUIET;
+                    } else if (move != tableMove) {
+                        if (StaticExchange.isGoodCapture(board, move)) return move;
+                        if (!quiescence) badNoisyMoves.add(move); // Losing captures wait until after the quiets.
+                    }
+                }
+                case STAGE_GENERATE_QUIET -> {
+                    quietMoves.clear();
+                    MoveGenerator.generateLegalMoves(board, quietMoves, MoveGenerator.QUIET, -1L);
+                    stage = STAGE_KILLERS;
+                }
+                case STAGE_KILLERS -> {
+                    int killer = killerIndex == 0 ? killer1 : killerIndex == 1 ? killer2 : Move.NONE;
+                    killerIndex++;
+                    if (killerIndex > 2) {
+                        scoreQuiets();
+                        index = 0;
+                        stage = STAGE_QUIET;
+                    } else if (killer != Move.NONE && killer != tableMove && quietMoves.contains(killer)) {
+                        return killer;
+                    }
+                }
+                case STAGE_QUIET -> {
+                    int move = pickBest(quietMoves);
+                    if (move == Move.NONE) {
+                        index = 0;
+                        stage = STAGE_BAD_NOISY;
+                    } else if (move != tableMove && move != killer1 && move != killer2) {
+                        return move;
+                    }
+                }
+                case STAGE_BAD_NOISY -> {
+                    if (index >= badNoisyMoves.size()) {
+                        stage = STAGE_DONE;
+                    } else {
+                        return badNoisyMoves.get(index++);
+                    }
+                }
+                default -> {
+                    return Move.NONE;
+                }
+            }
+        }
+    }
+
+    private boolean isLegal(int move) {
+        scratch.clear();
+        MoveGenerator.generateLegalMoves(board, scratch, MoveGenerator.ALL, 1L << Move.from(move));
+        return scratch.contains(move);
+    }
+
+    // Most valuable victim first; among equal victims, the least valuable attacker first.
+    private int mvvLva(int move) {
+        int victim = Move.isEnPassant(move) ? PieceConstants.PAWN : board.getPiece(Move.to(move)) & 7;
+        int attacker = board.getPiece(Move.from(move)) & 7;
+        int score = Evaluation.PIECE_VALUES[victim] * 16 - Evaluation.PIECE_VALUES[attacker] / 16;
+        if (Move.isPromotion(move)) score += Evaluation.PIECE_VALUES[Move.promotionType(move)] * 16;
+        return score;
+    }
+
+    private void scoreQuiets() {
+        boolean isWhite = board.isWhiteTurn();
+        for (int i = 0; i < quietMoves.size(); i++) {
+            int move = quietMoves.get(i);
+            scores[i] = tables.history(isWhite, move) + (move == counterMove ? COUNTER_MOVE_BONUS : 0);
+        }
+    }
+
+    // Selection sort one step at a time: cheap when a cutoff comes after the first few moves.
+    private int pickBest(MoveList moves) {
+        if (index >= moves.size()) return Move.NONE;
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        int move = moves.get(best);
+        moves.set(best, moves.get(index));
+        moves.set(index, move);
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+        index++;
+        return move;
+    }
+}
@@ -0,0 +1,228 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Optional NNUE-style evaluation network: (768 -> hidden) x 2 -> l1 -> 1.
+ * <p>
+ * The inputs are one feature per piece kind and square, seen from each side ("own"/"their"
+ * pieces, with black's board flipped). Their first layer sums are kept in an int16
+ * {@link NnueAccumulator} per perspective and updated on every piece change, so a move costs a
+ * few column additions instead of a full layer. Evaluating clips both accumulators to [0, 127]
+ * (side to move first) and runs the two small dense layers in int32.
+ * <p>
+ * The dense and accumulator loops run on {@code jdk.incubator.vector} when the JVM was started
+ * with {@code --add-modules jdk.incubator.vector}, and on plain scalar loops otherwise (or with
+ * {@code -Dchess.nnue.simd=false}); both give identical results.
+ * <p>
+ * File format (little-endian): magic "CSNNUE01", int hidden, int l1, then int16 feature weights
+ * [768][hidden], int16 feature biases [hidden], int16 l1 weights [l1][2 * hidden], int32 l1 biases
+ * [l1], int16 output weights [l1], int32 output bias. The file is memory-mapped to load it.
+ */
+public final class Nnue {
+    public static final int FEATURES = 768;
+    public static final int ACTIVATION_MAX = 127;
+    // hidden = clamp((bias + sum) >> L1_SHIFT, 0, 127); score = (bias + sum) / OUTPUT_DIVISOR.
+    static final int L1_SHIFT = 6;
+    static final int OUTPUT_DIVISOR = 64;
+    // Keeps network scores clear of bitbase wins and mate scores.
+    private static final int MAX_SCORE = Search.KNOWN_WIN - 1;
+
+    private static final byte[] MAGIC = "CSNNUE01".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_BYTES = MAGIC.length + 8;
+
+    private static final NnueKernels SCALAR_KERNELS = new ScalarNnueKernels();
+    private static final NnueKernels VECTOR_KERNELS = loadVectorKernels();
+
+    final int hiddenSize;
+    final int l1Size;
+    final short[] featureWeights;
+    final short[] featureBiases;
+    final short[] l1Weights;
+    final int[] l1Biases;
+    final short[] outputWeights;
+    final int outputBias;
+    final NnueKernels kernels;
+
+    private Nnue(int hiddenSize, int l1Size, short[] featureWeights, short[] featureBiases, short[] l1Weights,
+                 int[] l1Biases, short[] outputWeights, int outputBias, NnueKernels kernels) {
+        this.hiddenSize = hiddenSize;
+        this.l1Size = l1Size;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.l1Weights = l1Weights;
+        this.l1Biases = l1Biases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+        this.kernels = kernels;
+    }
+
+    /**
+     * Loads a network file through a read-only memory mapping.
+     */
+    public static Nnue load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer.order(ByteOrder.LITTLE_ENDIAN), path.toString());
+        }
+    }
+
+    /**
+     * Loads the network named by {@code -Dchess.nnue}, or returns null if none is set or it cannot be read.
+     */
+    public static Nnue openDefault() {
+        String file = System.getProperty("chess.nnue");
+        if (file == null || file.isBlank()) return null;
+        try {
+            return load(Path.of(file));
+        } catch (IOException e) {
+            System.err.println("Could not load network: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Nnue read(ByteBuffer buffer, String name) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        if (buffer.remaining() < HEADER_BYTES) throw new IOException("Not a network file: " + name);
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a network file: " + name);
+        int hidden = buffer.getInt();
+        int l1 = buffer.getInt();
+        if (hidden <= 0 || l1 <= 0 || hidden > 4096 || l1 > 1024) {
+            throw new IOException("Bad network size " + hidden + "/" + l1 + ": " + name);
+        }
+        long expected = HEADER_BYTES + 2L * (FEATURES * hidden + hidden + 2 * hidden * l1 + l1) + 4L * l1 + 4;
+        if (buffer.capacity() != expected) {
+            throw new IOException("Network file has " + buffer.capacity() + " bytes, expected " + expected + ": " + name);
+        }
+        short[] featureWeights = new short[FEATURES * hidden];
+        short[] featureBiases = new short[hidden];
+        short[] l1Weights = new short[2 * hidden * l1];
+        int[] l1Biases = new int[l1];
+        short[] outputWeights = new short[l1];
+        readShorts(buffer, featureWeights);
+        readShorts(buffer, featureBiases);
+        readShorts(buffer, l1Weights);
+        buffer.asIntBuffer().get(l1Biases);
+        buffer.position(buffer.position() + 4 * l1);
+        readShorts(buffer, outputWeights);
+        int outputBias = buffer.getInt();
+        return new Nnue(hidden, l1, featureWeights, featureBiases, l1Weights, l1Biases, outputWeights,
+                outputBias, defaultKernels());
+    }
+
+    private static void readShorts(ByteBuffer buffer, short[] values) {
+        buffer.asShortBuffer().get(values);
+        buffer.position(buffer.position() + 2 * values.length);
+    }
+
+    /**
+     * Writes this network in the format {@link #load} reads.
+     */
+    public void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 2 * (featureWeights.length + featureBiases.length
+                + l1Weights.length + outputWeights.length) + 4 * l1Biases.length + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(hiddenSize).putInt(l1Size);
+        for (short value : featureWeights) buffer.putShort(value);
+        for (short value : featureBiases) buffer.putShort(value);
+        for (short value : l1Weights) buffer.putShort(value);
+        for (int value : l1Biases) buffer.putInt(value);
+        for (short value : outputWeights) buffer.putShort(value);
+        buffer.putInt(outputBias).flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    /**
+     * An untrained network with small random weights, for benchmarks and testing the plumbing.
+     */
+    public static Nnue random(long seed, int hiddenSize, int l1Size) {
+        SplittableRandom random = new SplittableRandom(seed);
+        short[] featureWeights = randomShorts(random, FEATURES * hiddenSize, 64);
+        short[] featureBiases = randomShorts(random, hiddenSize, 64);
+        short[] l1Weights = randomShorts(random, 2 * hiddenSize * l1Size, 32);
+        int[] l1Biases = random.ints(l1Size, -1024, 1024).toArray();
+        short[] outputWeights = randomShorts(random, l1Size, 128);
+        return new Nnue(hiddenSize, l1Size, featureWeights, featureBiases, l1Weights, l1Biases, outputWeights,
+                random.nextInt(-256, 256), defaultKernels());
+    }
+
+    private static short[] randomShorts(SplittableRandom random, int length, int bound) {
+        short[] values = new short[length];
+        for (int i = 0; i < length; i++) values[i] = (short) random.nextInt(-bound, bound + 1);
+        return values;
+    }
+
+    /**
+     * Creates an accumulator for {@code board} and attaches it as the board's piece listener, so it
+     * follows every move made on that board from now on.
+     */
+    public NnueAccumulator attach(Board board) {
+        NnueAccumulator accumulator = new NnueAccumulator(this, board);
+        board.setPieceListener(accumulator);
+        return accumulator;
+    }
+
+    // Second layer and output, from the two clipped accumulators in {@code input} (side to move first).
+    int propagate(short[] input, short[] hidden) {
+        int inputSize = 2 * hiddenSize;
+        for (int i = 0; i < l1Size; i++) {
+            int sum = l1Biases[i] + kernels.dot(input, l1Weights, i * inputSize, inputSize);
+            hidden[i] = (short) Math.max(0, Math.min(ACTIVATION_MAX, sum >> L1_SHIFT));
+        }
+        int score = (outputBias + kernels.dot(hidden, outputWeights, 0, l1Size)) / OUTPUT_DIVISOR;
+        return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+    /**
+     * This network with the plain scalar kernels, e.g. to compare against the vector ones.
+     */
+    public Nnue scalar() {
+        return withKernels(SCALAR_KERNELS);
+    }
+
+    /**
+     * This network with the Vector API kernels, or null if {@code jdk.incubator.vector} is not available.
+     */
+    public Nnue vectorized() {
+        return VECTOR_KERNELS == null ? null : withKernels(VECTOR_KERNELS);
+    }
+
+    public boolean isVectorized() {
+        return kernels != SCALAR_KERNELS;
+    }
+
+    private Nnue withKernels(NnueKernels kernels) {
+        return new Nnue(hiddenSize, l1Size, featureWeights, featureBiases, l1Weights, l1Biases, outputWeights,
+                outputBias, kernels);
+    }
+
+    private static NnueKernels defaultKernels() {
+        boolean simd = Boolean.parseBoolean(System.getProperty("chess.nnue.simd", "true"));
+        return simd && VECTOR_KERNELS != null ? VECTOR_KERNELS : SCALAR_KERNELS;
+    }
+
+    // Loaded by name, so this class (and the scalar path) never links against the incubator module.
+    private static NnueKernels loadVectorKernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+        try {
+            return (NnueKernels) Class.forName("com.ChilliSauce.engine.VectorNnueKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
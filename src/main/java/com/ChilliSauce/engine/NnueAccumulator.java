@@ -0,0 +1,90 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+import com.ChilliSauce.PieceConstants;
+import com.ChilliSauce.PieceListener;
+
+import java.util.Arrays;
+
+/**
+ * First layer sums of an {@link Nnue} for one board, from white's and black's point of view,
+ * kept up to date as the board's {@link PieceListener}: each piece change adds or subtracts one
+ * weight column per perspective, and unmaking a move reverses it the same way. Belongs to one
+ * board and one thread. Run with {@code -Dchess.eval.selfcheck=true} to compare every evaluation
+ * against a full refresh.
+ */
+public final class NnueAccumulator implements PieceListener {
+    private static final boolean SELF_CHECK = Boolean.getBoolean("chess.eval.selfcheck");
+
+    private final Nnue network;
+    private final Board board;
+    private final short[] white;
+    private final short[] black;
+    // Scratch for evaluate().
+    private final short[] input;
+    private final short[] hidden;
+
+    NnueAccumulator(Nnue network, Board board) {
+        this.network = network;
+        this.board = board;
+        white = new short[network.hiddenSize];
+        black = new short[network.hiddenSize];
+        input = new short[2 * network.hiddenSize];
+        hidden = new short[network.l1Size];
+        refresh();
+    }
+
+    /**
+     * Recomputes both perspectives from the pieces on the board.
+     */
+    public void refresh() {
+        System.arraycopy(network.featureBiases, 0, white, 0, white.length);
+        System.arraycopy(network.featureBiases, 0, black, 0, black.length);
+        for (int square = 0; square < 64; square++) {
+            int piece = board.getPiece(square);
+            if (piece != PieceConstants.NONE) pieceAdded(piece, square);
+        }
+    }
+
+    @Override
+    public void pieceAdded(int piece, int square) {
+        network.kernels.add(white, network.featureWeights, featureOffset(piece, square, true));
+        network.kernels.add(black, network.featureWeights, featureOffset(piece, square, false));
+    }
+
+    @Override
+    public void pieceRemoved(int piece, int square) {
+        network.kernels.subtract(white, network.featureWeights, featureOffset(piece, square, true));
+        network.kernels.subtract(black, network.featureWeights, featureOffset(piece, square, false));
+    }
+
+    /**
+     * The network's score for the board, from the side to move's point of view (like
+     * {@link Evaluation#evaluate}).
+     */
+    public int evaluate() {
+        if (SELF_CHECK) verify();
+        boolean whiteToMove = board.isWhiteTurn();
+        network.kernels.clippedRelu(whiteToMove ? white : black, input, 0, Nnue.ACTIVATION_MAX);
+        network.kernels.clippedRelu(whiteToMove ? black : white, input, white.length, Nnue.ACTIVATION_MAX);
+        return network.propagate(input, hidden);
+    }
+
+    private void verify() {
+        short[] expectedWhite = white.clone();
+        short[] expectedBlack = black.clone();
+        refresh();
+        if (!Arrays.equals(expectedWhite, white) || !Arrays.equals(expectedBlack, black)) {
+            throw new IllegalStateException("Network accumulator out of sync with the board");
+        }
+    }
+
+    // Start of the weight column for a piece on a square, seen by one side: own pieces are kinds
+    // 0-5, the opponent's 6-11, and black sees the board flipped vertically.
+    private int featureOffset(int piece, int square, boolean whitePerspective) {
+        boolean isOwn = ((piece & PieceConstants.WHITE) != 0) == whitePerspective;
+        int kind = (isOwn ? 0 : 6) + (piece & 7) - 1;
+        int relativeSquare = whitePerspective ? square : square ^ 56;
+        return (kind * 64 + relativeSquare) * network.hiddenSize;
+    }
+}
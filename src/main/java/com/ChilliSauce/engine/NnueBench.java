@@ -0,0 +1,114 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+import com.ChilliSauce.MoveGenerator;
+import com.ChilliSauce.MoveList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Headless benchmark of the network evaluation: full evaluations and incremental (make/unmake)
+ * accumulator updates per second, with the scalar kernels and, if available, the Vector API ones.
+ * Also checks that both give the same scores.
+ * <pre>
+ *   java --add-modules jdk.incubator.vector -cp target/classes com.ChilliSauce.engine.NnueBench [network file]
+ * </pre>
+ * Without a file, a random network of the default size is written to a temporary file and loaded
+ * back through the same memory-mapped path as a real one.
+ */
+public final class NnueBench {
+    private static final int HIDDEN = 256;
+    private static final int L1 = 32;
+    private static final int POSITIONS = 2000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        Nnue network;
+        if (args.length > 0) {
+            network = Nnue.load(Path.of(args[0]));
+        } else {
+            Path file = Files.createTempFile("chillisauce-bench", ".nnue");
+            try {
+                Nnue.random(1, HIDDEN, L1).save(file);
+                network = Nnue.load(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        List<Board> positions = randomPositions(POSITIONS, new SplittableRandom(7));
+        System.out.printf("Network %d x 2 -> %d -> 1, %d positions%n", network.hiddenSize, network.l1Size, positions.size());
+
+        long scalarChecksum = run("scalar", network.scalar(), positions);
+        Nnue vectorized = network.vectorized();
+        if (vectorized == null) {
+            System.out.println("vector  unavailable (start the JVM with --add-modules jdk.incubator.vector)");
+            return;
+        }
+        long vectorChecksum = run("vector", vectorized, positions);
+        if (vectorChecksum != scalarChecksum) {
+            throw new IllegalStateException("Scalar and vector kernels disagree");
+        }
+    }
+
+    // Prints the best of ROUNDS for both measurements; returns a checksum of all scores.
+    private static long run(String name, Nnue network, List<Board> positions) {
+        List<Board> boards = new ArrayList<>(positions.size());
+        List<NnueAccumulator> accumulators = new ArrayList<>(positions.size());
+        for (Board position : positions) {
+            Board board = new Board(position);
+            boards.add(board);
+            accumulators.add(network.attach(board));
+        }
+        MoveList moves = new MoveList();
+
+        long checksum = 0;
+        double bestEvals = 0;
+        double bestUpdates = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            checksum = 0;
+            for (NnueAccumulator accumulator : accumulators) checksum = checksum * 31 + accumulator.evaluate();
+            bestEvals = Math.max(bestEvals, accumulators.size() * 1e9 / (System.nanoTime() - start));
+
+            long moveCount = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < boards.size(); i++) {
+                Board board = boards.get(i);
+                moves.clear();
+                MoveGenerator.generateLegalMoves(board, moves);
+                for (int m = 0; m < moves.size(); m++) {
+                    board.makeMove(moves.get(m));
+                    board.unmakeMove();
+                }
+                moveCount += moves.size();
+            }
+            bestUpdates = Math.max(bestUpdates, moveCount * 1e9 / (System.nanoTime() - start));
+        }
+        System.out.printf("%-7s %,12.0f evals/s  %,12.0f make+unmake/s%n", name, bestEvals, bestUpdates);
+        return checksum;
+    }
+
+    // Positions from random games, so the set covers openings, middlegames and endgames.
+    private static List<Board> randomPositions(int count, SplittableRandom random) {
+        List<Board> positions = new ArrayList<>(count);
+        MoveList moves = new MoveList();
+        Board board = new Board();
+        while (positions.size() < count) {
+            moves.clear();
+            MoveGenerator.generateLegalMoves(board, moves);
+            if (moves.isEmpty() || board.getHalfmoveClock() >= 100) {
+                board = new Board();
+                continue;
+            }
+            board.makeMove(moves.get(random.nextInt(moves.size())));
+            positions.add(new Board(board));
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ChilliSauce.engine;
+
+/**
+ * The inner loops of {@link Nnue}, with a scalar and a Vector API implementation.
+ */
+interface NnueKernels {
+
+    /**
+     * accumulator[i] += weights[offset + i] for the whole accumulator.
+     */
+    void add(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * accumulator[i] -= weights[offset + i] for the whole accumulator.
+     */
+    void subtract(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * Copies {@code values} into {@code output} from {@code outputOffset}, clamped to [0, max].
+     */
+    void clippedRelu(short[] values, short[] output, int outputOffset, int max);
+
+    /**
+     * Dot product of input[0, length) and weights[offset, offset + length), summed in int32.
+     */
+    int dot(short[] input, short[] weights, int offset, int length);
+}
@@ -0,0 +1,72 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Move;
+
+import java.util.Arrays;
+
+/**
+ * Quiet-move ordering statistics learned during a search: killer moves per ply, a history
+ * score per (side, from, to) and a countermove per previous move. Owned by one search thread.
+ */
+public final class OrderingTables {
+    // Keeps history scores well inside an int and lets recent results outweigh old ones.
+    private static final int MAX_HISTORY = 1 << 20;
+
+    private final int[][] killers = new int[Search.MAX_PLY + 1][2];
+    private final int[][][] history = new int[2][64][64];
+    private final int[][] counterMoves = new int[64][64];
+
+    public int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    public int history(boolean isWhite, int move) {
+        return history[isWhite ? 0 : 1][Move.from(move)][Move.to(move)];
+    }
+
+    /**
+     * The quiet move that last refuted {@code previousMove}, or {@link Move#NONE}.
+     */
+    public int counterMove(int previousMove) {
+        return previousMove == Move.NONE ? Move.NONE : counterMoves[Move.from(previousMove)][Move.to(previousMove)];
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff. The quiet moves tried before it
+     * ({@code failed[0..failedCount)}) are penalised, so history favours moves that cut off early.
+     */
+    public void recordCutoff(boolean isWhite, int ply, int depth, int move, int previousMove,
+                             int[] failed, int failedCount) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        if (previousMove != Move.NONE) {
+            counterMoves[Move.from(previousMove)][Move.to(previousMove)] = move;
+        }
+        int bonus = depth * depth;
+        int side = isWhite ? 0 : 1;
+        addHistory(side, move, bonus);
+        for (int i = 0; i < failedCount; i++) {
+            addHistory(side, failed[i], -bonus);
+        }
+    }
+
+    private void addHistory(int side, int move, int delta) {
+        int[] row = history[side][Move.from(move)];
+        int to = Move.to(move);
+        row[to] += delta;
+        if (Math.abs(row[to]) >= MAX_HISTORY) {
+            for (int[] fromRow : history[side]) {
+                for (int i = 0; i < 64; i++) fromRow[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Killers only make sense for the search that found them; history and countermoves carry over.
+     */
+    public void clearKillers() {
+        for (int[] plyKillers : killers) Arrays.fill(plyKillers, Move.NONE);
+    }
+}
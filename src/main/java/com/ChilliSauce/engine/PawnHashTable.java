@@ -0,0 +1,75 @@
+package com.ChilliSauce.engine;
+
+/**
+ * Cache of pawn structure evaluations, keyed by {@link com.ChilliSauce.Board#getPawnKey()}.
+ * Pawn structure changes on few moves, so almost every evaluation in a search finds its entry.
+ * Each slot is four longs in one flat array: the pawn key, the packed midgame/endgame score and
+ * the passed-pawn masks of white and black. One table per search thread, so no synchronisation.
+ */
+public final class PawnHashTable {
+    public static final int DEFAULT_SLOTS = 1 << 16; // 2 MB
+
+    private static final int SLOT_LONGS = 4;
+
+    private final long[] entries;
+    private final int indexMask;
+    private long probes;
+    private long hits;
+
+    public PawnHashTable(int slots) {
+        int size = Integer.highestOneBit(Math.max(1, slots));
+        entries = new long[size * SLOT_LONGS];
+        indexMask = size - 1;
+        clear();
+    }
+
+    /**
+     * Returns the offset of the slot holding {@code key}, or -1 on a miss.
+     */
+    public int probe(long key) {
+        probes++;
+        int slot = slotOf(key);
+        if (entries[slot] != key) return -1;
+        hits++;
+        return slot;
+    }
+
+    /**
+     * Stores an evaluation (always replacing) and returns its slot offset.
+     */
+    public int store(long key, long scores, long whitePassed, long blackPassed) {
+        int slot = slotOf(key);
+        entries[slot] = key;
+        entries[slot + 1] = scores;
+        entries[slot + 2] = whitePassed;
+        entries[slot + 3] = blackPassed;
+        return slot;
+    }
+
+    public long scores(int slot) {
+        return entries[slot + 1];
+    }
+
+    public long passedPawns(int slot, boolean white) {
+        return entries[slot + (white ? 2 : 3)];
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length; i += SLOT_LONGS) {
+            entries[i] = -1L; // Not a reachable pawn key in practice; 0 (no pawns) must still be stored.
+        }
+        probes = 0;
+        hits = 0;
+    }
+
+    /**
+     * Fraction of probes since the last {@link #clear} that found their entry.
+     */
+    public double hitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    private int slotOf(long key) {
+        return ((int) key & indexMask) * SLOT_LONGS;
+    }
+}
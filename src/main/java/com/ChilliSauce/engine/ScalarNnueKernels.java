@@ -0,0 +1,37 @@
+package com.ChilliSauce.engine;
+
+/**
+ * Plain loops; used when the Vector API is not available.
+ */
+final class ScalarNnueKernels implements NnueKernels {
+
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public void clippedRelu(short[] values, short[] output, int outputOffset, int max) {
+        for (int i = 0; i < values.length; i++) {
+            output[outputOffset + i] = (short) Math.max(0, Math.min(max, values[i]));
+        }
+    }
+
+    @Override
+    public int dot(short[] input, short[] weights, int offset, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += input[i] * weights[offset + i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,365 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+import com.ChilliSauce.Move;
+import com.ChilliSauce.MoveList;
+import com.ChilliSauce.PieceConstants;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Iterative-deepening principal variation search (PVS) over a {@link Board}. One instance
+ * runs one search on one thread; {@link #stop()} may be called from any thread, even before
+ * the search has started.
+ * <p>
+ * For Lazy SMP several instances search the same root at once, each on its own board copy,
+ * sharing only the transposition table; helpers (thread index &gt; 0) start at staggered depths
+ * so the threads spread over different parts of the tree.
+ * <p>
+ * MultiPV: with {@link #setMultiPv} above 1, each iteration searches the root once per line,
+ * excluding the root moves of the lines already found, so line k is the best move not among
+ * lines 1..k-1. The lines share the transposition table and ordering tables, so later lines
+ * are mostly table hits and cost far less than separate searches.
+ * The board is modified with make/unmake during the search and restored when it returns.
+ */
+public final class Search {
+    public static final int MAX_PLY = 128;
+    public static final int INFINITY = 32_000;
+    public static final int MATE = 31_000;
+    // Base score of a bitbase win: below every mate score, above any evaluation.
+    public static final int KNOWN_WIN = 20_000;
+
+    // Delta pruning: a capture that cannot lift the score to alpha even with this margin is skipped.
+    private static final int DELTA_MARGIN = 200;
+
+    // How often (in nodes) the clock is read; reading it every node would cost more than the check.
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    private final Board board;
+    private final TranspositionTable table;
+    private final PawnHashTable pawnTable;
+    private NnueAccumulator accumulator; // null = hand-written evaluation
+    private final Bitbases bitbases = Bitbases.getIfLoaded(); // null until loaded
+    private final int threadIndex;
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+    private final OrderingTables orderingTables = new OrderingTables();
+    // Quiet moves tried at each ply, penalised in the history table when a later quiet move cuts off.
+    private final int[][] quietsTried = new int[MAX_PLY + 1][MoveList.DEFAULT_CAPACITY];
+
+    // Triangular PV table: pvTable[ply] holds the best line found from that ply.
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    // MultiPV: root moves of the lines already found in this iteration, skipped at ply 0.
+    private int multiPv = 1;
+    private final int[] excludedRootMoves = new int[MoveList.DEFAULT_CAPACITY];
+    private int excludedCount;
+
+    private volatile boolean stopped;
+    private long nodes;
+    private long nodeLimit;
+    private long startNanos;
+    private long deadlineNanos;
+    private int rootDepth;
+    // Nodes reported in results; the Engine points this at the total over all threads.
+    private LongSupplier nodeCounter = this::getNodes;
+
+    public Search(Board board, TranspositionTable table) {
+        this(board, table, 0);
+    }
+
+    public Search(Board board, TranspositionTable table, int threadIndex) {
+        this(board, table, new PawnHashTable(PawnHashTable.DEFAULT_SLOTS), threadIndex);
+    }
+
+    /**
+     * @param pawnTable this thread's pawn structure cache; kept by the caller across searches
+     */
+    public Search(Board board, TranspositionTable table, PawnHashTable pawnTable, int threadIndex) {
+        this.board = board;
+        this.table = table;
+        this.pawnTable = pawnTable;
+        this.threadIndex = threadIndex;
+        for (int i = 0; i <= MAX_PLY; i++) {
+            pickers[i] = new MovePicker();
+        }
+    }
+
+    /**
+     * Asks a running search to finish; it returns the result of the last completed iteration.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public void setNodeCounter(LongSupplier nodeCounter) {
+        this.nodeCounter = nodeCounter;
+    }
+
+    /**
+     * Sets the number of best lines to search and report each iteration (1 = normal search).
+     */
+    public void setMultiPv(int lines) {
+        if (lines < 1) {
+            throw new IllegalArgumentException("MultiPV must be at least 1");
+        }
+        multiPv = lines;
+    }
+
+    /**
+     * Evaluates with {@code network} instead of the hand-written evaluation (null = back to it).
+     * Attaches an accumulator to this search's board; call before searching.
+     */
+    public void setNetwork(Nnue network) {
+        board.setPieceListener(null);
+        accumulator = network == null ? null : network.attach(board);
+    }
+
+    /**
+     * Searches the current position until one of the limits is reached.
+     *
+     * @param listener notified after every completed iteration; may be null
+     */
+    public SearchResult search(SearchLimits limits, SearchListener listener) {
+        nodes = 0;
+        orderingTables.clearKillers();
+        nodeLimit = limits.nodes();
+        startNanos = System.nanoTime();
+        deadlineNanos = limits.timeMillis() > 0 ? startNanos + limits.timeMillis() * 1_000_000 : Long.MAX_VALUE;
+        TimeManager timeManager = null;
+        if (limits.hasClock()) {
+            timeManager = new TimeManager(limits, board.isWhiteTurn());
+            deadlineNanos = Math.min(deadlineNanos, startNanos + timeManager.hardMillis() * 1_000_000);
+        }
+        int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_PLY - 1) : MAX_PLY - 1;
+
+        // Fallback if even depth 1 is interrupted: any legal move beats none.
+        MoveList rootMoves = new MoveList();
+        board.generateLegalMoves(rootMoves);
+        int fallback = rootMoves.isEmpty() ? Move.NONE : rootMoves.get(0);
+        SearchResult best = new SearchResult(fallback, 0, 0, 0, 0,
+                fallback == Move.NONE ? new int[0] : new int[]{fallback});
+        if (rootMoves.isEmpty()) return best;
+
+        // Every other helper skips depth 1, so neighbouring threads work on different depths.
+        int startDepth = 1 + (threadIndex & 1);
+        int lines = Math.min(multiPv, rootMoves.size());
+        for (int depth = startDepth; depth <= maxDepth; depth++) {
+            rootDepth = depth;
+            int score = 0;
+            excludedCount = 0;
+            for (int line = 1; line <= lines; line++) {
+                int lineScore = alphaBeta(depth, -INFINITY, INFINITY, 0);
+                if (stopped) break; // Partial lines are discarded; the last complete ones stand.
+
+                int[] pv = Arrays.copyOf(pvTable[0], pvLength[0]);
+                SearchResult result = new SearchResult(pv[0], lineScore, depth, nodeCounter.getAsLong(),
+                        elapsedMillis(), pv, line);
+                if (line == 1) {
+                    best = result;
+                    score = lineScore;
+                }
+                if (listener != null) listener.onIteration(result);
+                excludedRootMoves[excludedCount++] = pv[0];
+            }
+            excludedCount = 0;
+            if (stopped) break;
+            // Found a forced mate: deeper won't help (unless other lines are still wanted).
+            if (lines == 1 && Math.abs(score) >= MATE - depth) break;
+            if (timeManager != null) {
+                if (rootMoves.size() == 1) break; // Only move: no point thinking on our clock.
+                if (timeManager.shouldStop(elapsedMillis(), best.bestMove(), score)) break;
+            }
+        }
+        return best;
+    }
+
+    private int alphaBeta(int depth, int alpha, int beta, int ply) {
+        boolean inCheck = board.isInCheck();
+        if (inCheck) depth++; // Check extension: never stop the search on a check.
+        if (depth <= 0) return quiescence(alpha, beta, ply);
+
+        pvLength[ply] = 0;
+        nodes++;
+        if (rootDepth > 1) checkLimits(); // The first iteration always completes, so there is always a real move.
+        if (stopped) return 0;
+        if (ply > 0 && (board.getHalfmoveClock() >= 100 || board.isRepetition())) return 0;
+        if (ply >= MAX_PLY) return evaluate();
+        // A bitbase draw ends the line; wins are still searched so the mate itself can be found.
+        if (ply > 0 && bitbases != null && bitbases.probe(board) == Bitbases.DRAW) return 0;
+
+        // Transposition table: cut off at non-PV nodes, otherwise just use its move for ordering.
+        long key = board.getZobristKey();
+        long entry = table.probe(key);
+        int tableMove = Move.NONE;
+        boolean isPvNode = beta - alpha > 1;
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (!isPvNode && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int tableScore = TranspositionTable.scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && tableScore >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && tableScore <= alpha)) {
+                    return tableScore;
+                }
+            }
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.init(board, orderingTables, tableMove, ply);
+        int previousMove = board.getLastMove();
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        int moveCount = 0;
+        int quietCount = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            if (ply == 0 && isExcludedRootMove(move)) continue;
+            boolean isQuiet = !Move.isCapture(move) && !Move.isPromotion(move);
+            board.makeMove(move);
+            int score;
+            if (moveCount++ == 0) {
+                score = -alphaBeta(depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                // Later moves only need to prove they are no better than the PV move (null window);
+                // the rare ones that are get a full re-search.
+                score = -alphaBeta(depth - 1, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta) {
+                    score = -alphaBeta(depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            board.unmakeMove();
+            if (stopped) return 0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (isQuiet) {
+                            orderingTables.recordCutoff(board.isWhiteTurn(), ply, depth, move, previousMove,
+                                    quietsTried[ply], quietCount);
+                        }
+                        break;
+                    }
+                }
+            }
+            if (isQuiet) quietsTried[ply][quietCount++] = move;
+        }
+        if (moveCount == 0) {
+            return inCheck ? -MATE + ply : 0; // Prefer the quickest mate.
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        // A root searched without its best moves must not overwrite the real root entry.
+        if (ply > 0 || excludedCount == 0) {
+            table.store(key, bestMove, TranspositionTable.scoreToTable(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    private boolean isExcludedRootMove(int move) {
+        for (int i = 0; i < excludedCount; i++) {
+            if (excludedRootMoves[i] == move) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Searches only captures and promotions (all evasions when in check) until the position is quiet,
+     * so the static evaluation is never taken in the middle of an exchange.
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        nodes++;
+        if (rootDepth > 1) checkLimits();
+        if (stopped) return 0;
+        if (ply >= MAX_PLY) return evaluate();
+        if (bitbases != null) {
+            int known = bitbases.probe(board);
+            if (known != Bitbases.UNKNOWN) return bitbaseScore(known);
+        }
+
+        boolean inCheck = board.isInCheck();
+        int standPat = -INFINITY;
+        MovePicker picker = pickers[ply];
+        if (inCheck) {
+            picker.init(board, orderingTables, Move.NONE, ply); // Every evasion, to see mates.
+        } else {
+            // "Stand pat": the side to move may decline every capture.
+            standPat = evaluate();
+            if (standPat >= beta) return standPat;
+            if (standPat > alpha) alpha = standPat;
+            picker.initQuiescence(board, orderingTables);
+        }
+
+        int bestScore = standPat;
+        int moveCount = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            moveCount++;
+            if (!inCheck && !Move.isPromotion(move)) {
+                int victim = Move.isEnPassant(move) ? PieceConstants.PAWN : board.getPiece(Move.to(move)) & 7;
+                if (standPat + Evaluation.PIECE_VALUES[victim] + DELTA_MARGIN <= alpha) continue;
+            }
+
+            board.makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            board.unmakeMove();
+            if (stopped) return 0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+        if (inCheck && moveCount == 0) return -MATE + ply;
+        return bestScore;
+    }
+
+    private void updatePv(int ply, int move) {
+        pvTable[ply][ply] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, childLength);
+        pvLength[ply] = childLength + 1;
+    }
+
+    // Static evaluation from the side to move's point of view.
+    private int evaluate() {
+        return accumulator != null ? accumulator.evaluate() : Evaluation.evaluate(board, pawnTable);
+    }
+
+    // Exact result at the horizon, with a mop-up bonus so won endings make progress towards mate.
+    private int bitbaseScore(int result) {
+        if (result == Bitbases.DRAW) return 0;
+        boolean strongIsWhite = board.isWhiteTurn() == (result == Bitbases.WIN);
+        int score = KNOWN_WIN + Evaluation.mopUp(board, strongIsWhite);
+        return result == Bitbases.WIN ? score : -score;
+    }
+
+    private void checkLimits() {
+        // The limit counts every thread's nodes, as reported, so "go nodes" does not grow with Threads.
+        if (nodeLimit > 0 && nodeCounter.getAsLong() >= nodeLimit) {
+            stopped = true;
+        } else if ((nodes % TIME_CHECK_INTERVAL) == 0 && System.nanoTime() >= deadlineNanos) {
+            stopped = true;
+        }
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ChilliSauce.engine;
+
+/**
+ * When a search should stop. A zero field means "no limit" for that dimension; the search
+ * stops at whichever limit is reached first. When a game clock is given, {@link TimeManager}
+ * turns it into a time budget for this move.
+ *
+ * @param depth          maximum iterative-deepening depth in plies (0 = up to {@link Search#MAX_PLY})
+ * @param nodes          maximum number of nodes to visit (0 = unlimited)
+ * @param timeMillis     fixed thinking time in milliseconds (0 = unlimited)
+ * @param whiteTimeMillis remaining clock time of white (0 = no clock)
+ * @param blackTimeMillis remaining clock time of black (0 = no clock)
+ * @param whiteIncrementMillis white's increment per move
+ * @param blackIncrementMillis black's increment per move
+ * @param movesToGo      moves until the next time control (0 = sudden death / increment only)
+ */
+public record SearchLimits(int depth, long nodes, long timeMillis,
+                           long whiteTimeMillis, long blackTimeMillis,
+                           long whiteIncrementMillis, long blackIncrementMillis, int movesToGo) {
+
+    public SearchLimits(int depth, long nodes, long timeMillis) {
+        this(depth, nodes, timeMillis, 0, 0, 0, 0, 0);
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(0, 0, timeMillis);
+    }
+
+    /**
+     * Plays on a game clock: the engine decides how much of its remaining time to spend.
+     */
+    public static SearchLimits clock(long whiteTimeMillis, long blackTimeMillis,
+                                     long whiteIncrementMillis, long blackIncrementMillis, int movesToGo) {
+        return new SearchLimits(0, 0, 0, whiteTimeMillis, blackTimeMillis,
+                whiteIncrementMillis, blackIncrementMillis, movesToGo);
+    }
+
+    /**
+     * No limits at all: the search runs until {@link Search#stop()} is called.
+     */
+    public static SearchLimits infinite() {
+        return new SearchLimits(0, 0, 0);
+    }
+
+    public boolean hasClock() {
+        return whiteTimeMillis > 0 || blackTimeMillis > 0;
+    }
+
+    /**
+     * True when nothing limits the search (analysis, pondering): it runs until stopped.
+     */
+    public boolean isInfinite() {
+        return depth == 0 && nodes == 0 && timeMillis == 0 && !hasClock();
+    }
+}
@@ -0,0 +1,14 @@
+package com.ChilliSauce.engine;
+
+/**
+ * Receives progress from a running search. Called on the search thread, so Swing
+ * listeners must hand the result over to the EDT themselves.
+ */
+public interface SearchListener {
+
+    /**
+     * Called after every completed iteration of iterative deepening; in MultiPV mode once per
+     * line as soon as that line is finished, in line order.
+     */
+    void onIteration(SearchResult result);
+}
@@ -0,0 +1,61 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Move;
+
+/**
+ * Outcome of one completed search iteration: the best move, its score and principal variation.
+ * In MultiPV mode each iteration produces one result per line, best line first.
+ *
+ * @param bestMove      packed {@link Move} to play ({@link Move#NONE} if there is no legal move)
+ * @param score         centipawns from the side to move's point of view, or a mate score
+ * @param depth         the iteration depth that produced this result
+ * @param nodes         nodes visited so far in the whole search
+ * @param elapsedMillis time spent so far in the whole search
+ * @param pv            principal variation, starting with {@code bestMove}
+ * @param multiPv       which line this is (1 = best), as in UCI's {@code info multipv}
+ */
+public record SearchResult(int bestMove, int score, int depth, long nodes, long elapsedMillis, int[] pv,
+                           int multiPv) {
+
+    /**
+     * The result of a single-line search (or the best line of a MultiPV search).
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedMillis, int[] pv) {
+        this(bestMove, score, depth, nodes, elapsedMillis, pv, 1);
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * Moves until mate (positive if the side to move mates, negative if it gets mated).
+     */
+    public int mateInMoves() {
+        int plies = Search.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+    }
+
+    public long nodesPerSecond() {
+        return elapsedMillis == 0 ? 0 : nodes * 1000 / elapsedMillis;
+    }
+
+    /**
+     * The score in UCI notation: {@code cp <centipawns>} or {@code mate <moves>}.
+     */
+    public String scoreString() {
+        return isMate() ? "mate " + mateInMoves() : "cp " + score;
+    }
+
+    /**
+     * The principal variation as space-separated UCI moves.
+     */
+    public String pvString() {
+        StringBuilder sb = new StringBuilder();
+        for (int move : pv) {
+            if (!sb.isEmpty()) sb.append(' ');
+            sb.append(Move.toUci(move));
+        }
+        return sb.toString();
+    }
+}
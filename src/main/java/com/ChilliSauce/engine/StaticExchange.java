@@ -0,0 +1,151 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+import com.ChilliSauce.Move;
+import com.ChilliSauce.PieceConstants;
+
+/**
+ * Static exchange evaluation (SEE): the material outcome of a capture sequence on one square,
+ * assuming both sides always recapture with their least valuable attacker and may stop when
+ * continuing would lose material. Works on the attack tables alone (no make/unmake), and
+ * re-reads the attackers after every capture so sliders behind the capturing piece join in.
+ * Pins are ignored, as usual for SEE.
+ */
+public final class StaticExchange {
+    // Indexed by bare piece type; the king is priceless, so it only ever captures last.
+    private static final int[] VALUES = {0, 20_000, 900, 500, 320, 330, 100};
+    // Least valuable first.
+    private static final int[] ATTACKER_ORDER = {
+            PieceConstants.PAWN, PieceConstants.KNIGHT, PieceConstants.BISHOP,
+            PieceConstants.ROOK, PieceConstants.QUEEN, PieceConstants.KING
+    };
+
+    private StaticExchange() {
+    }
+
+    /**
+     * Material gained (in centipawns, from the mover's side) by playing {@code move} and letting the
+     * exchange on its target square run its course. Negative for a losing capture.
+     */
+    public static int evaluate(Board board, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean moverIsWhite = board.isWhiteTurn();
+
+        int[] gain = new int[32];
+        long occupancy = board.getOccupancy() ^ (1L << from);
+        int onSquare = board.getPiece(from) & 7; // piece that now stands on the target square
+        if (Move.isEnPassant(move)) {
+            gain[0] = VALUES[PieceConstants.PAWN];
+            occupancy ^= 1L << (moverIsWhite ? to - 8 : to + 8);
+        } else {
+            gain[0] = VALUES[board.getPiece(to) & 7];
+        }
+        if (Move.isPromotion(move)) {
+            onSquare = Move.promotionType(move);
+            gain[0] += VALUES[onSquare] - VALUES[PieceConstants.PAWN];
+        }
+
+        long attackers = board.getAttackersTo(to, occupancy);
+        boolean sideIsWhite = !moverIsWhite;
+        int depth = 0;
+        while (true) {
+            long ownAttackers = attackers & board.getOccupancy(sideIsWhite);
+            if (ownAttackers == 0) break;
+
+            int attackerType = PieceConstants.NONE;
+            long attackerBit = 0;
+            for (int type : ATTACKER_ORDER) {
+                long candidates = ownAttackers & board.getBitboard(type | (sideIsWhite ? PieceConstants.WHITE : PieceConstants.BLACK));
+                if (candidates != 0) {
+                    attackerType = type;
+                    attackerBit = candidates & -candidates;
+                    break;
+                }
+            }
+            // The king may only take last: not if the other side still defends the square.
+            if (attackerType == PieceConstants.KING
+                    && (attackers & board.getOccupancy(!sideIsWhite) & ~attackerBit) != 0) {
+                break;
+            }
+
+            depth++;
+            gain[depth] = VALUES[onSquare] - gain[depth - 1];
+
+            occupancy ^= attackerBit;
+            attackers = board.getAttackersTo(to, occupancy);
+            onSquare = attackerType;
+            sideIsWhite = !sideIsWhite;
+        }
+
+        // Each side chooses whether to make its capture, back from the end of the sequence.
+        for (; depth > 0; depth--) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    /**
+     * True if {@code move} does not lose material in the exchange (SEE &gt;= 0).
+     */
+    public static boolean isGoodCapture(Board board, int move) {
+        return isAtLeast(board, move, 0);
+    }
+
+    /**
+     * Same answer as {@code evaluate(board, move) >= threshold}, but cheaper: no gain list, and it
+     * stops as soon as the outcome relative to the threshold is certain. Used to prune and order captures.
+     */
+    public static boolean isAtLeast(Board board, int move, int threshold) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean moverIsWhite = board.isWhiteTurn();
+
+        long occupancy = board.getOccupancy() ^ (1L << from);
+        int captured = Move.isEnPassant(move) ? PieceConstants.PAWN : board.getPiece(to) & 7;
+        int onSquare = board.getPiece(from) & 7;
+        if (Move.isEnPassant(move)) {
+            occupancy ^= 1L << (moverIsWhite ? to - 8 : to + 8);
+        }
+        int balance = VALUES[captured] - threshold;
+        if (Move.isPromotion(move)) {
+            onSquare = Move.promotionType(move);
+            balance += VALUES[onSquare] - VALUES[PieceConstants.PAWN];
+        }
+        if (balance < 0) return false; // Even an unanswered capture falls short.
+        balance = VALUES[onSquare] - balance;
+        if (balance <= 0) return true; // Even losing the capturing piece keeps us at the threshold.
+
+        // From here on 'balance' is what the side to recapture needs to win; 'moverWins' flips each capture.
+        boolean moverWins = true;
+        boolean sideIsWhite = !moverIsWhite;
+        long attackers = board.getAttackersTo(to, occupancy);
+        while (true) {
+            long ownAttackers = attackers & board.getOccupancy(sideIsWhite);
+            if (ownAttackers == 0) break;
+
+            int attackerType = PieceConstants.NONE;
+            long attackerBit = 0;
+            for (int type : ATTACKER_ORDER) {
+                long candidates = ownAttackers & board.getBitboard(type | (sideIsWhite ? PieceConstants.WHITE : PieceConstants.BLACK));
+                if (candidates != 0) {
+                    attackerType = type;
+                    attackerBit = candidates & -candidates;
+                    break;
+                }
+            }
+            if (attackerType == PieceConstants.KING) {
+                // The king takes only if nothing defends the square; then it wins the exchange for its side.
+                return (attackers & board.getOccupancy(!sideIsWhite)) != 0 ? moverWins : !moverWins;
+            }
+
+            moverWins = !moverWins;
+            balance = VALUES[attackerType] - balance;
+            if (balance < (moverWins ? 1 : 0)) break; // Losing this piece would still leave the capturer ahead.
+            occupancy ^= attackerBit;
+            attackers = board.getAttackersTo(to, occupancy);
+            sideIsWhite = !sideIsWhite;
+        }
+        return moverWins;
+    }
+}
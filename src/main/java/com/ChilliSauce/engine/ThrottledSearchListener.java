@@ -0,0 +1,35 @@
+package com.ChilliSauce.engine;
+
+/**
+ * Forwards search progress to another listener at most once per interval, so a front end
+ * (e.g. the Swing GUI) is not flooded by the many fast early iterations of a deep search.
+ * The first update and any update that finds a mate are always forwarded. In MultiPV mode the
+ * decision is made on each iteration's best line, and its other lines follow it.
+ */
+public final class ThrottledSearchListener implements SearchListener {
+    private final long intervalNanos;
+    private final SearchListener delegate;
+    private long lastForwardNanos;
+    private boolean forwardedAny;
+    private boolean forwardingIteration;
+
+    public ThrottledSearchListener(long intervalMillis, SearchListener delegate) {
+        this.intervalNanos = intervalMillis * 1_000_000;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onIteration(SearchResult result) {
+        if (result.multiPv() > 1) {
+            if (forwardingIteration) delegate.onIteration(result);
+            return;
+        }
+        long now = System.nanoTime();
+        forwardingIteration = !forwardedAny || now - lastForwardNanos >= intervalNanos || result.isMate();
+        if (forwardingIteration) {
+            forwardedAny = true;
+            lastForwardNanos = now;
+            delegate.onIteration(result);
+        }
+    }
+}
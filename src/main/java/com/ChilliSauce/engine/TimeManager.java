@@ -0,0 +1,68 @@
+package com.ChilliSauce.engine;
+
+/**
+ * Turns a game clock into a time budget for one move.
+ * <p>
+ * The <em>hard</em> limit is a deadline the search checks while running and never exceeds; it
+ * always leaves a safety reserve on the clock. The <em>soft</em> limit is only checked between
+ * iterations: no new iteration starts once it is likely to overrun it. The soft limit grows while
+ * the best move keeps changing or the score drops, and shrinks while the best move is stable.
+ */
+public final class TimeManager {
+    // Kept back on every move for thread scheduling and GUI/UCI round trips, so the clock never runs out.
+    private static final long MOVE_OVERHEAD_MILLIS = 50;
+    // Expected number of moves still to play when the time control does not say.
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final int MAX_MOVES_TO_GO = 50;
+
+    private final long softMillis;
+    private final long hardMillis;
+
+    private int previousBestMove;
+    private int previousScore;
+    private double instability = 1.0;
+
+    public TimeManager(SearchLimits limits, boolean isWhite) {
+        long remaining = isWhite ? limits.whiteTimeMillis() : limits.blackTimeMillis();
+        long increment = isWhite ? limits.whiteIncrementMillis() : limits.blackIncrementMillis();
+        int movesToGo = limits.movesToGo() > 0 ? Math.min(limits.movesToGo(), MAX_MOVES_TO_GO) : DEFAULT_MOVES_TO_GO;
+
+        long usable = Math.max(1, remaining - MOVE_OVERHEAD_MILLIS);
+        long soft = usable / movesToGo + increment * 3 / 4;
+        // Never plan to use more than an eighth of the clock, or hard-stop after a quarter, so an unstable
+        // best move can still double the soft limit (all of the clock on the last move before a control).
+        long cap = movesToGo == 1 ? usable : usable / 8;
+        softMillis = Math.max(1, Math.min(soft, cap));
+        hardMillis = Math.max(softMillis, Math.min(softMillis * 3, movesToGo == 1 ? usable : usable / 4));
+    }
+
+    public long softMillis() {
+        return softMillis;
+    }
+
+    public long hardMillis() {
+        return hardMillis;
+    }
+
+    /**
+     * Called after each completed iteration; true if the search should not start another one.
+     */
+    public boolean shouldStop(long elapsedMillis, int bestMove, int score) {
+        if (previousBestMove != 0) { // Nothing to compare with after the first iteration.
+            if (bestMove == previousBestMove) {
+                instability = Math.max(0.6, instability * 0.9);
+            } else {
+                instability = Math.min(2.0, instability + 0.5);
+            }
+            if (score < previousScore - 30) {
+                instability = Math.min(2.0, instability + 0.3); // Score dropped: look for a rescue.
+            }
+        }
+        previousBestMove = bestMove;
+        previousScore = score;
+
+        long budget = Math.min(hardMillis, (long) (softMillis * instability));
+        // The next iteration usually takes a few times longer than all previous ones together.
+        return elapsedMillis >= budget / 2;
+    }
+}
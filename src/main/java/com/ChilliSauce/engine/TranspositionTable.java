@@ -0,0 +1,144 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Move;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size, lock-free transposition table shared by all search threads.
+ * <p>
+ * Each entry is two longs: {@code key ^ data} and {@code data}, where data packs
+ * move (16 bits), score (16), depth (8), bound (2) and age (8). A reader only trusts an entry
+ * whose halves XOR back to its own key, so an entry torn by two threads writing at once reads
+ * as a miss. Entries sit in buckets of two: a depth-preferred slot that keeps deep results
+ * from the current search, and an always-replace slot for everything else.
+ */
+public final class TranspositionTable {
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2; // score >= stored score (fail high)
+    public static final int BOUND_UPPER = 3; // score <= stored score (fail low)
+
+    private static final int LONGS_PER_BUCKET = 4;
+
+    private final long[] entries;
+    private final int bucketMask;
+    private int age;
+
+    public TranspositionTable(int megabytes) {
+        long buckets = Math.max(1L, (long) megabytes * 1024 * 1024 / (LONGS_PER_BUCKET * Long.BYTES));
+        int size = Integer.highestOneBit((int) Math.min(buckets, 1 << 28));
+        entries = new long[size * LONGS_PER_BUCKET];
+        bucketMask = size - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from older searches are replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0L);
+        age = 0;
+    }
+
+    /**
+     * Returns the packed data stored for {@code key}, or 0 on a miss. Decode it with
+     * {@link #move}, {@link #score}, {@link #depth} and {@link #bound}.
+     */
+    public long probe(long key) {
+        int slot = bucketIndex(key);
+        for (int i = 0; i < LONGS_PER_BUCKET; i += 2) {
+            long data = entries[slot + i + 1];
+            if (data != 0 && (entries[slot + i] ^ data) == key) return data;
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores a search result. Mate scores must already be relative to this node (see {@link #scoreToTable}).
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int slot = bucketIndex(key);
+        long deepData = entries[slot + 1];
+        boolean deepMatches = (entries[slot] ^ deepData) == key;
+
+        // Keep the old best move when this result has none (e.g. a fail low).
+        if (move == Move.NONE) {
+            long existing = deepMatches ? deepData : probe(key);
+            if (existing != 0) move = move(existing);
+        }
+        long data = pack(move, score, depth, bound);
+
+        // Depth-preferred slot: take it if it is empty, ours, stale or shallower.
+        if (deepData == 0 || deepMatches || age(deepData) != age || depth >= depth(deepData)) {
+            entries[slot] = key ^ data;
+            entries[slot + 1] = data;
+        } else {
+            entries[slot + 2] = key ^ data;
+            entries[slot + 3] = data;
+        }
+    }
+
+    /**
+     * Permille of depth-preferred slots written during the current search (UCI "hashfull").
+     */
+    public int hashfull() {
+        int buckets = Math.min(1000, bucketMask + 1);
+        int used = 0;
+        for (int i = 0; i < buckets; i++) {
+            long data = entries[i * LONGS_PER_BUCKET + 1];
+            if (data != 0 && age(data) == age) used++;
+        }
+        return used * 1000 / buckets;
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) (key >>> 32) & bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    private long pack(int move, int score, int depth, int bound) {
+        return (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) bound << 40)
+                | ((long) age << 42);
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 0x3);
+    }
+
+    private static int age(long data) {
+        return (int) ((data >>> 42) & 0xFF);
+    }
+
+    /**
+     * Mate scores are stored as "mate in N from this node" rather than from the root,
+     * so they stay correct when the position is reached at a different ply.
+     */
+    public static int scoreToTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) return score + ply;
+        if (score <= -Search.MATE + Search.MAX_PLY) return score - ply;
+        return score;
+    }
+
+    public static int scoreFromTable(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) return score - ply;
+        if (score <= -Search.MATE + Search.MAX_PLY) return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,299 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+import com.ChilliSauce.Move;
+import com.ChilliSauce.PieceConstants;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * UCI (Universal Chess Interface) front-end: drives the {@link Engine} over stdin/stdout so
+ * tournament managers and analysis tools can run it as a separate process. Loads no Swing classes.
+ * <pre>
+ *   java --add-modules jdk.incubator.vector -cp target/classes com.ChilliSauce.engine.Uci
+ * </pre>
+ * Supported: uci, isready, ucinewgame, setoption (Hash, Threads, MultiPV, OwnBook, BookFile,
+ * BookBestMove, UseNNUE, EvalFile), position (startpos | fen) [moves],
+ * go (depth, nodes, movetime, wtime, btime, winc, binc, movestogo, infinite), stop, quit.
+ */
+public final class Uci {
+    private static final String NAME = "ChilliSauce";
+    private static final String AUTHOR = "ChefChilliSauce";
+    private static final int MAX_HASH_MB = 4096;
+    private static final int MAX_THREADS = 256;
+    private static final int MAX_MULTI_PV = 64;
+
+    private final Engine engine = new Engine();
+    private Board board = new Board();
+
+    // Opening book: BookFile (default -Dchess.book) is used while OwnBook is on.
+    private OpeningBook book = OpeningBook.openDefault();
+    private boolean ownBook = true;
+    private boolean bookBestMove;
+
+    // Evaluation network: EvalFile (default -Dchess.nnue) is used while UseNNUE is on.
+    private Nnue network = Nnue.openDefault();
+    private boolean useNetwork = true;
+
+    public Uci() {
+        updateBook();
+        updateNetwork();
+    }
+
+    public static void main(String[] args) throws IOException {
+        new Uci().run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] tokens = line.trim().split("\\s+");
+            switch (tokens[0]) {
+                case "uci" -> {
+                    send("id name " + NAME);
+                    send("id author " + AUTHOR);
+                    send("option name Hash type spin default " + Engine.DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+                    send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                    send("option name MultiPV type spin default 1 min 1 max " + MAX_MULTI_PV);
+                    send("option name OwnBook type check default true");
+                    send("option name BookFile type string default " + System.getProperty("chess.book", "<empty>"));
+                    send("option name BookBestMove type check default false");
+                    send("option name UseNNUE type check default true");
+                    send("option name EvalFile type string default " + System.getProperty("chess.nnue", "<empty>"));
+                    send("uciok");
+                }
+                case "isready" -> send("readyok");
+                case "ucinewgame" -> {
+                    engine.stop();
+                    engine.clearHash();
+                    board = new Board();
+                }
+                case "setoption" -> setOption(tokens);
+                case "position" -> setPosition(tokens);
+                case "go" -> go(tokens);
+                case "stop" -> engine.stop();
+                case "quit" -> {
+                    engine.shutdown();
+                    return;
+                }
+                default -> {
+                    // UCI: unknown commands are ignored.
+                }
+            }
+        }
+        engine.shutdown();
+    }
+
+    // setoption name <id> value <x>
+    private void setOption(String[] tokens) {
+        String name = valueAfter(tokens, "name");
+        String value = valueAfter(tokens, "value");
+        if (name == null || value == null) return;
+        try {
+            switch (name.toLowerCase()) {
+                case "hash" -> engine.setHashSize(clamp(Integer.parseInt(value), 1, MAX_HASH_MB));
+                case "threads" -> engine.setThreads(clamp(Integer.parseInt(value), 1, MAX_THREADS));
+                case "multipv" -> engine.setMultiPv(clamp(Integer.parseInt(value), 1, MAX_MULTI_PV));
+                case "ownbook" -> {
+                    ownBook = Boolean.parseBoolean(value);
+                    updateBook();
+                }
+                case "bookfile" -> {
+                    book = openBook(value);
+                    updateBook();
+                }
+                case "bookbestmove" -> {
+                    bookBestMove = Boolean.parseBoolean(value);
+                    updateBook();
+                }
+                case "usennue" -> {
+                    useNetwork = Boolean.parseBoolean(value);
+                    updateNetwork();
+                }
+                case "evalfile" -> {
+                    network = loadNetwork(value);
+                    updateNetwork();
+                }
+                default -> send("info string unknown option " + name);
+            }
+        } catch (NumberFormatException e) {
+            send("info string bad value for " + name + ": " + value);
+        }
+    }
+
+    private void updateBook() {
+        engine.setOpeningBook(ownBook ? book : null, bookBestMove);
+    }
+
+    private static OpeningBook openBook(String file) {
+        if (file.isBlank() || file.equals("<empty>")) return null;
+        try {
+            OpeningBook book = OpeningBook.open(Path.of(file));
+            send("info string book " + file + " with " + book.size() + " entries");
+            return book;
+        } catch (IOException | RuntimeException e) {
+            send("info string cannot open book " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void updateNetwork() {
+        engine.setNetwork(useNetwork ? network : null);
+    }
+
+    private static Nnue loadNetwork(String file) {
+        if (file.isBlank() || file.equals("<empty>")) return null;
+        try {
+            Nnue network = Nnue.load(Path.of(file));
+            send("info string network " + file + (network.isVectorized() ? " (SIMD)" : " (scalar)"));
+            return network;
+        } catch (IOException | RuntimeException e) {
+            send("info string cannot load network " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // position (startpos | fen <fen>) [moves <m1> <m2> ...]
+    private void setPosition(String[] tokens) {
+        int movesIndex = indexOf(tokens, "moves");
+        int fenEnd = movesIndex < 0 ? tokens.length : movesIndex;
+        Board newBoard;
+        try {
+            if (tokens.length > 1 && tokens[1].equals("fen")) {
+                newBoard = new Board(String.join(" ", Arrays.copyOfRange(tokens, 2, fenEnd)));
+            } else {
+                newBoard = new Board();
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+            return;
+        }
+        if (movesIndex >= 0) {
+            for (int i = movesIndex + 1; i < tokens.length; i++) {
+                int move = parseMove(newBoard, tokens[i]);
+                if (move == Move.NONE) {
+                    send("info string illegal move " + tokens[i]);
+                    return;
+                }
+                newBoard.makeMove(move);
+            }
+        }
+        board = newBoard;
+    }
+
+    private void go(String[] tokens) {
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        long whiteTime = 0;
+        long blackTime = 0;
+        long whiteIncrement = 0;
+        long blackIncrement = 0;
+        int movesToGo = 0;
+        try {
+            for (int i = 1; i < tokens.length - 1; i++) {
+                switch (tokens[i]) {
+                    case "depth" -> depth = Integer.parseInt(tokens[++i]);
+                    case "nodes" -> nodes = Long.parseLong(tokens[++i]);
+                    case "movetime" -> moveTime = Long.parseLong(tokens[++i]);
+                    case "wtime" -> whiteTime = Math.max(1, Long.parseLong(tokens[++i]));
+                    case "btime" -> blackTime = Math.max(1, Long.parseLong(tokens[++i]));
+                    case "winc" -> whiteIncrement = Long.parseLong(tokens[++i]);
+                    case "binc" -> blackIncrement = Long.parseLong(tokens[++i]);
+                    case "movestogo" -> movesToGo = Integer.parseInt(tokens[++i]);
+                    default -> {
+                        // "infinite" and unknown tokens: no limit of their own.
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            send("info string bad go command");
+            return;
+        }
+
+        SearchLimits limits = new SearchLimits(depth, nodes, moveTime, whiteTime, blackTime,
+                whiteIncrement, blackIncrement, movesToGo);
+        engine.stop();
+        engine.searchAsync(board, limits, this::sendInfo).thenAccept(result -> {
+            for (Engine.ThreadStats stats : engine.getLastThreadStats()) {
+                send(String.format("info string thread %d nodes %d nps %d",
+                        stats.thread(), stats.nodes(), stats.nodesPerSecond()));
+            }
+            if (result.pv().length >= 2) {
+                send("bestmove " + Move.toUci(result.bestMove()) + " ponder " + Move.toUci(result.pv()[1]));
+            } else {
+                send("bestmove " + Move.toUci(result.bestMove()));
+            }
+        });
+    }
+
+    private void sendInfo(SearchResult result) {
+        send(String.format("info depth %d multipv %d score %s nodes %d nps %d time %d hashfull %d pv %s",
+                result.depth(), result.multiPv(), result.scoreString(), result.nodes(), result.nodesPerSecond(),
+                result.elapsedMillis(), engine.getTable().hashfull(), result.pvString()));
+    }
+
+    /**
+     * Finds the legal move written in UCI notation (e.g. "e2e4", "e7e8q"), or {@link Move#NONE}.
+     */
+    public static int parseMove(Board board, String text) {
+        if (text.length() < 4) return Move.NONE;
+        int from = squareIndex(text.charAt(0), text.charAt(1));
+        int to = squareIndex(text.charAt(2), text.charAt(3));
+        if (from < 0 || to < 0) return Move.NONE;
+        int promotionType = PieceConstants.NONE;
+        if (text.length() > 4) {
+            promotionType = switch (text.charAt(4)) {
+                case 'q' -> PieceConstants.QUEEN;
+                case 'r' -> PieceConstants.ROOK;
+                case 'b' -> PieceConstants.BISHOP;
+                case 'n' -> PieceConstants.KNIGHT;
+                default -> -1;
+            };
+            if (promotionType < 0) return Move.NONE;
+        }
+        int move = board.findLegalMove(from, to, promotionType);
+        // "e7e8" without a piece letter is not a valid promotion in UCI.
+        if (move != Move.NONE && Move.isPromotion(move) && promotionType == PieceConstants.NONE) return Move.NONE;
+        return move;
+    }
+
+    private static int squareIndex(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') return -1;
+        return (rank - '1') * 8 + (file - 'a');
+    }
+
+    // The words after "key", up to "value" or the end of the line (option names may contain spaces).
+    private static String valueAfter(String[] tokens, String key) {
+        int start = indexOf(tokens, key);
+        if (start < 0) return null;
+        StringBuilder sb = new StringBuilder();
+        for (int i = start + 1; i < tokens.length && !tokens[i].equals("value"); i++) {
+            if (!sb.isEmpty()) sb.append(' ');
+            sb.append(tokens[i]);
+        }
+        return sb.isEmpty() ? null : sb.toString();
+    }
+
+    private static int indexOf(String[] tokens, String word) {
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].equals(word)) return i;
+        }
+        return -1;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static void send(String message) {
+        synchronized (System.out) {
+            System.out.println(message);
+            System.out.flush();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.ChilliSauce.engine;
+
+import com.ChilliSauce.Board;
+import com.ChilliSauce.Move;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plays match games with an external UCI engine process, e.g. an older build of this engine
+ * ({@code java -cp old/classes com.ChilliSauce.engine.Uci}), so versions can be compared.
+ */
+public final class UciPlayer implements MatchPlayer {
+    private final Process process;
+    private final PrintWriter in;
+    private final BufferedReader out;
+
+    /**
+     * Starts the engine and sends it {@code options} (UCI option name to value).
+     *
+     * @throws IOException if the process cannot be started or does not speak UCI
+     */
+    public UciPlayer(List<String> command, Map<String, String> options) throws IOException {
+        process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        in = new PrintWriter(process.getOutputStream(), true);
+        out = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        try {
+            send("uci");
+            waitFor("uciok");
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                send("setoption name " + option.getKey() + " value " + option.getValue());
+            }
+            send("isready");
+            waitFor("readyok");
+        } catch (IOException e) {
+            process.destroy();
+            throw e;
+        }
+    }
+
+    @Override
+    public void newGame() throws IOException {
+        send("ucinewgame");
+        send("isready");
+        waitFor("readyok");
+    }
+
+    @Override
+    public int selectMove(String startFen, List<Integer> moves, Board board, SearchLimits limits) throws IOException {
+        StringBuilder position = new StringBuilder("position fen ").append(startFen);
+        if (!moves.isEmpty()) {
+            position.append(" moves");
+            for (int move : moves) position.append(' ').append(Move.toUci(move));
+        }
+        send(position.toString());
+        send(goCommand(limits));
+        String line = waitFor("bestmove");
+        String[] tokens = line.trim().split("\\s+");
+        return tokens.length < 2 ? Move.NONE : Uci.parseMove(board, tokens[1]);
+    }
+
+    private static String goCommand(SearchLimits limits) {
+        StringBuilder go = new StringBuilder("go");
+        if (limits.depth() > 0) go.append(" depth ").append(limits.depth());
+        if (limits.nodes() > 0) go.append(" nodes ").append(limits.nodes());
+        if (limits.timeMillis() > 0) go.append(" movetime ").append(limits.timeMillis());
+        if (limits.hasClock()) {
+            go.append(" wtime ").append(limits.whiteTimeMillis()).append(" btime ").append(limits.blackTimeMillis())
+                    .append(" winc ").append(limits.whiteIncrementMillis())
+                    .append(" binc ").append(limits.blackIncrementMillis());
+            if (limits.movesToGo() > 0) go.append(" movestogo ").append(limits.movesToGo());
+        }
+        return go.toString();
+    }
+
+    private void send(String command) {
+        in.println(command);
+    }
+
+    // Reads until a line starting with the given word and returns it.
+    private String waitFor(String word) throws IOException {
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (line.equals(word) || line.startsWith(word + " ")) return line;
+        }
+        throw new IOException("Engine exited while waiting for " + word);
+    }
+
+    @Override
+    public void close() {
+        send("quit");
+        in.close();
+        process.destroy();
+    }
+}
@@ -0,0 +1,77 @@
+package com.ChilliSauce.engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD loops on {@code jdk.incubator.vector}, at the platform's preferred vector width. Only
+ * loaded reflectively by {@link Nnue}, after checking the module is present.
+ */
+final class VectorNnueKernels implements NnueKernels {
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    // Same bit size as SHORTS, so one short vector widens into exactly two int vectors.
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public void clippedRelu(short[] values, short[] output, int outputOffset, int max) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(values.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, values, i)
+                    .max((short) 0)
+                    .min((short) max)
+                    .intoArray(output, outputOffset + i);
+        }
+        for (; i < values.length; i++) {
+            output[outputOffset + i] = (short) Math.max(0, Math.min(max, values[i]));
+        }
+    }
+
+    @Override
+    public int dot(short[] input, short[] weights, int offset, int length) {
+        IntVector sum = IntVector.zero(INTS);
+        int i = 0;
+        for (int bound = SHORTS.loopBound(length); i < bound; i += SHORTS.length()) {
+            ShortVector a = ShortVector.fromArray(SHORTS, input, i);
+            ShortVector b = ShortVector.fromArray(SHORTS, weights, offset + i);
+            // Widen to int32 before multiplying; 16-bit products would overflow.
+            for (int part = 0; part < 2; part++) {
+                IntVector wideA = (IntVector) a.convertShape(VectorOperators.S2I, INTS, part);
+                IntVector wideB = (IntVector) b.convertShape(VectorOperators.S2I, INTS, part);
+                sum = sum.add(wideA.mul(wideB));
+            }
+        }
+        int result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            result += input[i] * weights[offset + i];
+        }
+        return result;
+    }
+}